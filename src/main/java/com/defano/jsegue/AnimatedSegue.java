@@ -1,13 +1,27 @@
 package com.defano.jsegue;
 
+import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * Abstract base class representing an animated image segue.
@@ -15,13 +29,31 @@ import java.util.concurrent.TimeUnit;
 @SuppressWarnings("unused")
 public abstract class AnimatedSegue {
 
-    private final Set<SegueAnimationObserver> animationObserver = new HashSet<>();
-    private final Set<SegueCompletionObserver> completionObserver = new HashSet<>();
+    private static final int MIN_BAND_HEIGHT = 16;
+    private static final int NO_SEEK = Float.floatToIntBits(Float.NaN);
+
+    private final Object observerLock = new Object();
+    private volatile FrameMailbox[] animationObserver = new FrameMailbox[0];
+    private final Set<SegueCompletionObserver> completionObserver = new CopyOnWriteArraySet<>();
+    private final Set<SegueMetricsObserver> metricsObserver = new CopyOnWriteArraySet<>();
+    private final FramePool framePool = new FramePool();
+    private volatile Executor observerExecutor;
     private int durationMs = 1000;
     private int fps = 30;
     private boolean isOverlay = false;
-    private ScheduledExecutorService animatorService;
-    private long startTime;
+    private ScheduledExecutorService scheduler;
+    private ForkJoinPool renderPool;
+    private FramePacing framePacing = FramePacing.FIXED_RATE;
+    private Interpolation interpolation = Interpolation.NEAREST_NEIGHBOR;
+    private RenderingHints renderingHints = new RenderingHints(null);
+    private FrameCache frameCache;
+    private SegueClock clock = SegueClock.SYSTEM;
+    private boolean isReversed = false;
+    private volatile Runnable sequenceHandoff;
+    private volatile PreparedFrame preparedFrame;
+    private final Seeker seeker = new Seeker();
+    private int keyframeCount = 0;
+    private volatile Animation animation;
     private BufferedImage source;
     private BufferedImage destination;
 
@@ -42,56 +74,553 @@ public abstract class AnimatedSegue {
      */
     public abstract BufferedImage render(BufferedImage src, BufferedImage dst, float progress);
 
+    /**
+     * Draws a frame in the segue animation directly into a caller-supplied graphics context, without allocating or
+     * copying an intermediate frame (for segues that support it; see
+     * {@link #draw(BufferedImage, BufferedImage, float, Graphics2D)}). The frame occupies the rectangle (0, 0, width,
+     * height) of the context's user space and is composited over whatever the context already contains, just as if
+     * the frame returned by {@link #render(BufferedImage, BufferedImage, float)} were drawn into it; the context's
+     * clip, transform and rendering hints are honored. The context is not modified.
+     *
+     * @param src      The source image; must be the same dimensions as dst.
+     * @param dst      The destination image; must be the same dimensions as src.
+     * @param progress A value between 0.0 and 1.0 (inclusive) representing the a location in the segue sequence the
+     *                 frame should be drawn.
+     * @param g        The graphics context into which the frame is drawn.
+     */
+    public void render(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
+        Graphics2D frameGraphics = (Graphics2D) g.create();
+        frameGraphics.clipRect(0, 0, src.getWidth(), src.getHeight());
+        draw(src, dst, progress, frameGraphics);
+        frameGraphics.dispose();
+    }
+
+    /**
+     * Renders a frame in the segue animation into a caller-owned image, replacing the contents of the rectangle (0, 0,
+     * width, height) of the image with the frame; pixels outside of that rectangle are unaffected.
+     *
+     * @param src      The source image; must be the same dimensions as dst.
+     * @param dst      The destination image; must be the same dimensions as src.
+     * @param progress A value between 0.0 and 1.0 (inclusive) representing the a location in the segue sequence the
+     *                 frame should be drawn.
+     * @param target   The image into which the frame is rendered; typically the same dimensions as src/dst.
+     */
+    public void render(BufferedImage src, BufferedImage dst, float progress, BufferedImage target) {
+        Graphics2D g = createGraphics(target);
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, src.getWidth(), src.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+
+        // The target's own bounds clip a frame of the same size; draw without a clip, exactly as into a new frame
+        if (target.getWidth() == src.getWidth() && target.getHeight() == src.getHeight()) {
+            g.dispose();
+            drawInto(src, dst, progress, target);
+        } else {
+            render(src, dst, progress, g);
+            g.dispose();
+        }
+    }
+
+    /**
+     * Draws a frame in the segue animation into a graphics context, compositing it over the context's existing
+     * content; see {@link #render(BufferedImage, BufferedImage, float, Graphics2D)}. The context is a copy, clipped to
+     * the frame's bounds, that the implementation may freely modify; but implementations must not replace the
+     * context's clip or transform (only narrow or append to them) and must draw using only {@code SRC_OVER}
+     * compositing, so that drawing into a context holding other content is equivalent to drawing into a transparent
+     * frame and compositing the frame onto that content.
+     * <p>
+     * The default implementation renders the frame with {@link #render(BufferedImage, BufferedImage, float)} and
+     * draws it into the context. Segues that draw frames with Java2D should instead override this method and render
+     * frames with {@link #drawFrame(BufferedImage, BufferedImage, float)}.
+     *
+     * @param src      The source image; guaranteed to be the same dimensions as dst.
+     * @param dst      The destination image; guaranteed to be the same dimensions as src.
+     * @param progress A value between 0.0 and 1.0 (inclusive) representing the a location in the segue sequence the
+     *                 frame should be drawn.
+     * @param g        The graphics context into which the frame should be drawn.
+     */
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
+        BufferedImage frame = render(src, dst, progress);
+        g.drawImage(frame, 0, 0, null);
+        releaseFrame(frame);
+    }
+
+    /**
+     * Renders a frame by drawing it (see {@link #draw(BufferedImage, BufferedImage, float, Graphics2D)}) into a new
+     * frame (see {@link #newFrame(int, int)}). Segues that override draw may implement
+     * {@link #render(BufferedImage, BufferedImage, float)} by returning the result of this method.
+     *
+     * @param src      The source image; guaranteed to be the same dimensions as dst.
+     * @param dst      The destination image; guaranteed to be the same dimensions as src.
+     * @param progress A value between 0.0 and 1.0 (inclusive) representing the a location in the segue sequence the
+     *                 frame should be drawn.
+     * @return The rendered frame.
+     */
+    protected BufferedImage drawFrame(BufferedImage src, BufferedImage dst, float progress) {
+        BufferedImage frame = newFrame(src.getWidth(), src.getHeight());
+        drawInto(src, dst, progress, frame);
+
+        return frame;
+    }
+
+    /**
+     * Renders a frame by updating, in place, a frame recycled from this segue's frame buffer pool (see
+     * {@link #setFrameBufferCount(int)}) that holds an earlier frame rendered by this method from the same images;
+     * only the pixels that differ between the two frames are rendered (see
+     * {@link #renderDelta(BufferedImage, BufferedImage, BufferedImage, float, float)}), so the cost of the frame is
+     * proportional to the change rather than to the size of the frame. Otherwise (when frame buffering is disabled, or
+     * no such frame has been released) the frame is rendered in full (see
+     * {@link #render(BufferedImage, BufferedImage, float, BufferedImage)}). Segues that support delta rendering may
+     * implement {@link #render(BufferedImage, BufferedImage, float)} by returning the result of this method.
+     *
+     * @param src      The source image; guaranteed to be the same dimensions as dst.
+     * @param dst      The destination image; guaranteed to be the same dimensions as src.
+     * @param progress A value between 0.0 and 1.0 (inclusive) representing the a location in the segue sequence the
+     *                 frame should be drawn.
+     * @return The rendered frame.
+     */
+    protected BufferedImage deltaFrame(BufferedImage src, BufferedImage dst, float progress) {
+        BufferedImage frame = framePool.getCapacity() > 0 ?
+                framePool.acquire(src.getWidth(), src.getHeight(), getFrameColorModel(), getFrameStorage(), false) :
+                newFrame(src.getWidth(), src.getHeight());
+
+        Object key = Arrays.asList(src, dst, isOverlay, getRenderingKey());
+        Object content = framePool.getContent(frame);
+
+        if (content instanceof DeltaContent && ((DeltaContent) content).key.equals(key)) {
+            renderDelta(src, dst, frame, ((DeltaContent) content).progress, progress);
+        } else {
+            render(src, dst, progress, frame);
+        }
+
+        framePool.setContent(frame, new DeltaContent(key, progress));
+        return frame;
+    }
+
+    /**
+     * Renders a rectangular window of the frame at the given point of progress in this segue's animation into a
+     * caller-owned image; only the pixels of the frame within the window are drawn. Thus a viewport onto an animation
+     * of very large images (see {@link OffHeapImages}) may be rendered without rendering, or allocating, any full-size
+     * frame, provided that the segue draws frames with Java2D (see
+     * {@link #draw(BufferedImage, BufferedImage, float, Graphics2D)}).
+     * <p>
+     * The window's pixels replace the contents of the rectangle (0, 0, window width, window height) of the target;
+     * pixels outside of that rectangle are unaffected. Portions of the window outside of the frame are transparent.
+     *
+     * @param progress A value between 0.0 and 1.0 (inclusive) representing the location in the segue sequence of the
+     *                 frame to render.
+     * @param viewport The window of the frame to render, in frame coordinates
+     * @param target   The image into which the window is rendered; typically the same dimensions as the window.
+     */
+    public void renderViewport(float progress, Rectangle viewport, BufferedImage target) {
+        assertImages();
+
+        BufferedImage source = this.source;
+        BufferedImage destination = this.destination;
+
+        Graphics2D g = target.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, viewport.width, viewport.height);
+        g.dispose();
+
+        // Draw only the portion of the window within both the frame and the target
+        Rectangle region = viewport
+                .intersection(new Rectangle(0, 0, source.getWidth(), source.getHeight()))
+                .intersection(new Rectangle(viewport.x, viewport.y, target.getWidth(), target.getHeight()));
+
+        if (!region.isEmpty()) {
+            drawTiles(source, destination, progress, target, viewport.getLocation(), region);
+        }
+    }
+
+    /**
+     * Draws a frame into an image of the same size; a tile at a time when the image is stored off-heap, so that
+     * Java2D never requires a full-size image on the heap to draw it (see {@link OffHeapImages}).
+     */
+    private void drawInto(BufferedImage src, BufferedImage dst, float progress, BufferedImage image) {
+        if (OffHeapImages.getStorage(image) == null) {
+            Graphics2D g = createGraphics(image);
+            draw(src, dst, progress, g);
+            g.dispose();
+        } else {
+            drawTiles(src, dst, progress, image, new Point(), new Rectangle(0, 0, src.getWidth(), src.getHeight()));
+        }
+    }
+
+    /**
+     * Draws a region of a frame into an image a tile at a time (see
+     * {@link OffHeapImages#forEachTile(Rectangle, java.util.function.Consumer)}). Each tile is drawn into a sub-image
+     * whose bounds (rather than a clip) confine the drawing, so that tiles are drawn exactly as the same pixels of a
+     * whole frame would be; Java2D only approximates the intersection of a clip with the curved clips of some
+     * segues.
+     *
+     * @param image  The image into which the region is drawn
+     * @param origin The position, in frame coordinates, of the image's top-left corner
+     * @param region The region of the frame to draw; must lie within the image
+     */
+    private void drawTiles(BufferedImage src, BufferedImage dst, float progress, BufferedImage image, Point origin,
+                           Rectangle region) {
+        OffHeapImages.forEachTile(region, tile -> {
+            BufferedImage window = image.getSubimage(tile.x - origin.x, tile.y - origin.y, tile.width, tile.height);
+            Graphics2D g = createGraphics(window);
+            g.translate(-tile.x, -tile.y);
+            draw(src, dst, progress, g);
+            g.dispose();
+        });
+    }
+
+    /**
+     * Renders a horizontal band of a frame in the segue animation. When parallel rendering is enabled (see
+     * {@link #setRenderPool(ForkJoinPool)}), segues that support band rendering have each frame divided into bands
+     * which are rendered concurrently; thus, implementations must be thread safe and must not modify pixels outside of
+     * the band.
+     * <p>
+     * Band rendering is used only by segues that override {@link #isBandRenderable()}. The default implementation
+     * draws the frame (see {@link #draw(BufferedImage, BufferedImage, float, Graphics2D)}) through a graphics context
+     * clipped to the band, which is correct for any segue whose {@code draw} method is thread safe; segues that draw
+     * frames with Java2D need not override it, though they may to skip work outside of the band.
+     *
+     * @param src      The source image; guaranteed to be the same dimensions as dst.
+     * @param dst      The destination image; guaranteed to be the same dimensions as src.
+     * @param progress A value between 0.0 and 1.0 (inclusive) representing the a location in the segue sequence the
+     *                 frame should be drawn.
+     * @param frame    The (initially transparent) frame into which the band should be drawn; the same dimensions as
+     *                 src/dst.
+     * @param band     The region of the frame to draw; always spans the full width of the frame.
+     */
+    protected void renderBand(BufferedImage src, BufferedImage dst, float progress, BufferedImage frame, Rectangle band) {
+        Graphics2D g = createGraphics(frame);
+        g.clip(band);
+        draw(src, dst, progress, g);
+        g.dispose();
+    }
+
+    /**
+     * Determines whether this segue can render frames in independent horizontal bands; see
+     * {@link #renderBand(BufferedImage, BufferedImage, float, BufferedImage, Rectangle)}.
+     *
+     * @return True if this segue supports band rendering; false otherwise.
+     */
+    protected boolean isBandRenderable() {
+        return false;
+    }
+
+    /**
+     * Gets the region of a frame that differs between the frames rendered at two points of progress, given unchanging
+     * source and destination images. Reported to animation observers (see
+     * {@link SegueAnimationObserver#onFrameRendered(AnimatedSegue, BufferedImage, Shape)}) so that they may repaint
+     * only the portion of the display that changed.
+     * <p>
+     * The default implementation reports the entire frame; segues that change only a portion of the frame as progress
+     * advances should override this method. The region reported may be larger than the region that actually changed,
+     * but never smaller.
+     *
+     * @param width        The width of the frame
+     * @param height       The height of the frame
+     * @param fromProgress The progress of the previous frame
+     * @param toProgress   The progress of the current frame; may be less than fromProgress
+     * @return The region of the frame that changed, in frame coordinates.
+     */
+    protected Shape getDamage(int width, int height, float fromProgress, float toProgress) {
+        return new Rectangle(0, 0, width, height);
+    }
+
+    /**
+     * Gets a value identifying the configuration of this segue's effect, such that two instances of the same segue
+     * class with equal parameter keys render identical frames from identical inputs. Used to key frames in a
+     * {@link FrameCache}; segues with configurable properties that affect rendering must override this method.
+     *
+     * @return An object (implementing equals and hashCode) representing the effect's parameters, or null if the
+     * effect has none.
+     */
+    protected Object getParameterKey() {
+        return null;
+    }
+
+    /**
+     * Updates, in place, a frame rendered at one point of progress so that it becomes the frame at another; used to
+     * seek (see {@link #seek(float)}) by rendering forward (or backward) from a nearby frame rather than rendering
+     * the requested frame from scratch.
+     * <p>
+     * Segues that override this method must also override {@link #isDeltaRenderable()}. The default implementation
+     * clears the region of the frame that differs between the two points of progress (see
+     * {@link #getDamage(int, int, float, float)}) and draws the frame (see
+     * {@link #draw(BufferedImage, BufferedImage, float, Graphics2D)}) clipped to that region; thus it is suitable for
+     * segues that draw frames with Java2D and report their damage accurately.
+     *
+     * @param src          The source image; guaranteed to be the same dimensions as dst.
+     * @param dst          The destination image; guaranteed to be the same dimensions as src.
+     * @param frame        A frame (the same dimensions as src/dst) holding the frame rendered at fromProgress, to be
+     *                     updated to the frame at toProgress.
+     * @param fromProgress The progress at which the frame was rendered
+     * @param toProgress   The progress of the frame to render; may be less than fromProgress
+     */
+    protected void renderDelta(BufferedImage src, BufferedImage dst, BufferedImage frame, float fromProgress, float toProgress) {
+        Shape damage = getDamage(src.getWidth(), src.getHeight(), fromProgress, toProgress);
+        if (damage.getBounds().isEmpty()) {
+            return;
+        }
+
+        Graphics2D g = createGraphics(frame);
+        g.clip(damage);
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, src.getWidth(), src.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        draw(src, dst, toProgress, g);
+        g.dispose();
+    }
+
+    /**
+     * Determines whether this segue can update a frame incrementally from one point of progress to another; see
+     * {@link #renderDelta(BufferedImage, BufferedImage, BufferedImage, float, float)}.
+     *
+     * @return True if this segue supports delta rendering; false otherwise.
+     */
+    protected boolean isDeltaRenderable() {
+        return false;
+    }
+
     /**
      * Begin animating this segue using the provided source and destination images; max frames per second, and
      * alpha isOverlay mode.
+     * <p>
+     * Frames are rendered on this segue's scheduler, or, when this segue's clock is an {@link ExternalClock}, on the
+     * threads that tick the clock.
      *
      * @return ScheduledFuture representing the future completion of the animation sequence
      */
     public ScheduledFuture start() {
-        startTime = System.currentTimeMillis();
+        return start(clock.nanoTime());
+    }
+
+    /**
+     * Begins animating this segue as though it had been started at the given time.
+     *
+     * @param startNanos The time (according to this segue's clock) at which the animation begins; may be in the past.
+     * @return ScheduledFuture representing the future completion of the animation sequence
+     */
+    ScheduledFuture<?> start(long startNanos) {
+        // Stop previous animation if we're already running, and abandon any seek not yet rendered
+        stop();
+        seeker.discard();
 
-        // Assure that 0 is always first render progress percent
         assertImages();
-        fireFrameRendered(render(source, destination, 0f));
 
-        // Stop previous animation if we're already running
-        if (animatorService != null) {
-            animatorService.shutdownNow();
-        }
+        Animation animation = new Animation(framePacing, clock, startNanos, isReversed);
+        this.animation = animation;
+        SegueMonitor.segueStarted(this, animation.metrics);
+
+        // Assure that 0 is always first render progress percent (or 1, when reversed)
+        animation.deliver(0f, takePreparedFrame(isReversed));
 
         // Invoke the renderer at a fixed rate
-        animatorService = Executors.newSingleThreadScheduledExecutor();
-        return animatorService.scheduleAtFixedRate(() -> {
-            if (getProgress() < 1.0f) {
-                assertImages();
-                fireFrameRendered(AnimatedSegue.this.render(source, destination, getProgress()));
-            } else {
-                // Always assure we end with a frame using progress = 1.0
-                fireFrameRendered(AnimatedSegue.this.render(source, destination, 1.0f));
+        return animation.schedule(getScheduler(), TimeUnit.SECONDS.toNanos(1) / Math.max(1, fps));
+    }
 
-                stop();
-                fireCompleted();
-            }
-        }, 0, 1000 / fps, TimeUnit.MILLISECONDS);
+    /**
+     * Prepares this segue to be started, rendering the first frame of its animation sequence ahead of time (on the
+     * calling thread) so that the next call to {@link #start()} can deliver it immediately. Preparing a segue also
+     * warms any state its effect computes on first use, and (when a {@link FrameCache} is in use) caches the frame.
+     * <p>
+     * A segue may be prepared while it or other segues are animating; for example, on a background thread while the
+     * preceding segue of a sequence is finishing (see {@link SegueSequence}). The prepared frame is discarded if the
+     * segue's images, overlay mode or direction change before it is started.
+     */
+    public void prepare() {
+        prepare(isReversed);
+    }
+
+    /**
+     * Prepares this segue to be started in the given direction; see {@link #prepare()}.
+     *
+     * @param reversed True to prepare the segue for reverse playback
+     */
+    void prepare(boolean reversed) {
+        assertImages();
+
+        BufferedImage source = this.source;
+        BufferedImage destination = this.destination;
+        boolean isOverlay = this.isOverlay;
+        BufferedImage frame = renderProgress(reversed ? 1.0f : 0f, () -> false);
+
+        PreparedFrame replaced = preparedFrame;
+        preparedFrame = new PreparedFrame(frame, source, destination, isOverlay, reversed);
+
+        if (replaced != null) {
+            framePool.release(replaced.frame);
+        }
+    }
+
+    /**
+     * Renders and delivers the frame at the given point of progress to this segue's animation observers, stopping the
+     * segue's animation, if running; intended for scrubbing a timeline. Frames are rendered asynchronously on this
+     * segue's scheduler. When seeks are requested faster than frames can be rendered, only the most recently requested
+     * frame is rendered; intermediate requests are skipped.
+     * <p>
+     * The most recently sought frame and any keyframes (see {@link #setKeyframeCount(int)}) are memoized. Segues that
+     * support delta rendering (see {@link #isDeltaRenderable()}) render each sought frame by updating a copy of the
+     * nearest memoized frame, touching only the pixels that differ; other segues render a keyframe only once, but
+     * render every other frame from scratch. Memoized frames are discarded when the segue's images or overlay mode
+     * change.
+     * <p>
+     * Sought frames are delivered along with the region that changed since the previously sought frame. Keyframes
+     * may be delivered to observers more than once, so observers must not modify the frames they receive.
+     *
+     * @param progress A value between 0.0 and 1.0 (inclusive) representing the location in the segue sequence to seek.
+     */
+    public void seek(float progress) {
+        stop();
+        seeker.post(Math.max(0f, Math.min(1.0f, progress)), getScheduler());
+    }
+
+    /**
+     * Gets the number of frames in this segue's animation sequence, as determined by its duration and FPS. Every
+     * sequence has at least two frames: the first at progress 0.0 and the last at progress 1.0.
+     *
+     * @return The number of frames in the sequence.
+     */
+    public int getFrameCount() {
+        return Math.max(2, Math.round(durationMs * fps / 1000f) + 1);
+    }
+
+    /**
+     * Gets the progress of the given frame in this segue's animation sequence; frames are spaced evenly such that
+     * frame i of n is rendered at progress i / (n - 1).
+     *
+     * @param frame The index of the frame, between 0 and {@link #getFrameCount()} - 1 (inclusive).
+     * @return The progress (between 0.0 and 1.0) at which the frame is rendered.
+     */
+    public float getFrameProgress(int frame) {
+        int frameCount = getFrameCount();
+
+        if (frame < 0 || frame >= frameCount) {
+            throw new IndexOutOfBoundsException("Frame " + frame + " does not exist; sequence has " + frameCount + " frames.");
+        }
+
+        return frame == frameCount - 1 ? 1.0f : (float) frame / (float) (frameCount - 1);
+    }
+
+    /**
+     * Renders a single frame of this segue's animation sequence using the segue's source and destination images.
+     * Unlike {@link #start()}, this method is independent of the wall clock: the same frame index always produces the
+     * same frame.
+     *
+     * @param frame The index of the frame, between 0 and {@link #getFrameCount()} - 1 (inclusive).
+     * @return The rendered frame.
+     */
+    public BufferedImage renderFrame(int frame) {
+        return renderProgress(getFrameProgress(frame), () -> false);
+    }
+
+    /**
+     * Renders this segue's complete animation sequence offline (in batch), without scheduling or waiting between
+     * frames. Frames are rendered lazily, in order, as the stream is consumed, at the progress steps given by
+     * {@link #getFrameProgress(int)}; the resulting sequence is deterministic and does not depend on the wall clock
+     * or on how quickly frames are rendered.
+     * <p>
+     * Animation observers are not notified of frames rendered this way.
+     *
+     * @return An ordered stream of {@link #getFrameCount()} frames.
+     */
+    public Stream<BufferedImage> frames() {
+        return IntStream.range(0, getFrameCount()).mapToObj(this::renderFrame);
+    }
+
+    /**
+     * Creates a new, fully transparent frame into which a renderer may draw. When frame buffering is enabled (see
+     * {@link #setFrameBufferCount(int)}) the frame is recycled from this segue's pool of previously released frames;
+     * otherwise a new image is allocated.
+     * <p>
+     * Frames have the same format (color model) as this segue's source image when that format supports translucency
+     * (for example, {@code TYPE_INT_ARGB_PRE} or a {@link GraphicsConfiguration}-compatible translucent image; see
+     * {@link SegueBuilder#withImageType(int)}), so that drawing the source and destination into the frame requires no
+     * format conversion. Otherwise, frames are {@code TYPE_INT_ARGB}. When the source image (or, if the source is on the
+     * heap, the destination image) is stored off-heap (see {@link OffHeapImages}), so are frames.
+     *
+     * @param width  The width of the frame
+     * @param height The height of the frame
+     * @return A transparent frame of the requested dimensions.
+     */
+    protected BufferedImage newFrame(int width, int height) {
+        ColorModel colorModel = getFrameColorModel();
+        OffHeapImages.Storage storage = getFrameStorage();
+
+        if (framePool.getCapacity() > 0) {
+            return framePool.acquire(width, height, colorModel, storage);
+        } else {
+            return FramePool.createFrame(width, height, colorModel, storage);
+        }
+    }
+
+    /**
+     * Returns a frame produced by this segue to its frame buffer pool so that it may be reused for a subsequent
+     * frame. Callers must not read or paint the frame after releasing it, nor modify it before; segues may update a
+     * recycled frame in place, from the pixels it held when released (see
+     * {@link #deltaFrame(BufferedImage, BufferedImage, float)}).
+     * <p>
+     * Frames delivered to animation observers may be released only when every registered observer has opted into
+     * this contract (see {@link SegueAnimationObserver#releasesFrames()}); frames rendered by calling
+     * {@link #render(BufferedImage, BufferedImage, float)} directly may be released by the caller. Has no effect on
+     * frames that were not drawn from the pool, or when frame buffering is disabled.
+     *
+     * @param frame The frame to release.
+     */
+    public void releaseFrame(BufferedImage frame) {
+        framePool.release(frame);
     }
 
     /**
      * Stops the running animation; has no effect if there is no active animation.
      */
     public void stop() {
-        if (animatorService != null) {
-            animatorService.shutdownNow();
+        Animation animation = this.animation;
+        if (animation != null) {
+            animation.cancel();
         }
     }
 
+    /**
+     * Gets the number of frames in the current (or most recent) animation that finished rendering after the next
+     * frame was due; that is, frames whose rendering overran the frame period.
+     *
+     * @return The number of late frames; zero if the segue has never been started.
+     */
+    public int getLateFrameCount() {
+        Animation animation = this.animation;
+        return animation == null ? 0 : animation.metrics.getLateFrameCount();
+    }
+
+    /**
+     * Gets the number of frames in the current (or most recent) animation that were dropped because an earlier frame
+     * overran its deadline. Frames are dropped only when pacing frames against a deadline (see
+     * {@link FramePacing#DEADLINE}).
+     *
+     * @return The number of dropped frames; zero if the segue has never been started.
+     */
+    public int getDroppedFrameCount() {
+        Animation animation = this.animation;
+        return animation == null ? 0 : animation.metrics.getDroppedFrameCount();
+    }
+
+    /**
+     * Gets the performance metrics of the current (or most recent) animation; metrics continue to update while the
+     * animation is running.
+     *
+     * @return The animation's metrics, or null if the segue has never been started.
+     */
+    public SegueMetrics getMetrics() {
+        Animation animation = this.animation;
+        return animation == null ? null : animation.metrics;
+    }
+
     /**
      * Determines whether this animation is running.
      *
      * @return True if animation is in progress; false otherwise.
      */
     public boolean isRunning() {
-        return animatorService == null || animatorService.isTerminated();
+        Animation animation = this.animation;
+        return animation != null && !animation.isDone();
     }
 
     /**
@@ -112,13 +641,53 @@ public abstract class AnimatedSegue {
         this.completionObserver.addAll(observers);
     }
 
+    /**
+     * Adds an observer of animation performance (fires each time this segue completes its animation sequence, just
+     * before completion observers are notified).
+     *
+     * @param observer The observer of animation metrics.
+     */
+    public void addMetricsObserver(SegueMetricsObserver observer) {
+        this.metricsObserver.add(observer);
+    }
+
+    /**
+     * Adds a collection of observers of animation performance.
+     *
+     * @param observers The observers destination be added.
+     */
+    public void addMetricsObservers(Collection<SegueMetricsObserver> observers) {
+        this.metricsObserver.addAll(observers);
+    }
+
+    /**
+     * Removes an animation performance observer.
+     *
+     * @param observer The observer destination remove.
+     * @return True if the given observer exists in the registered list of observers and was removed; false otherwise.
+     */
+    @SuppressWarnings("UnusedReturnValue")
+    public boolean removeMetricsObserver(SegueMetricsObserver observer) {
+        return this.metricsObserver.remove(observer);
+    }
+
     /**
      * Adds an observer of animation frame events (fires each time a new frame has been rendered in the animation.)
      *
      * @param observer The observer of animation frame events.
      */
     public void addAnimationObserver(SegueAnimationObserver observer) {
-        this.animationObserver.add(observer);
+        synchronized (observerLock) {
+            for (FrameMailbox thisMailbox : animationObserver) {
+                if (thisMailbox.getObserver().equals(observer)) {
+                    return;
+                }
+            }
+
+            FrameMailbox[] observers = Arrays.copyOf(animationObserver, animationObserver.length + 1);
+            observers[observers.length - 1] = new FrameMailbox(this, observer, framePool);
+            animationObserver = observers;
+        }
     }
 
     /**
@@ -127,7 +696,9 @@ public abstract class AnimatedSegue {
      * @param observers The observers.
      */
     public void addAnimationObservers(Collection<SegueAnimationObserver> observers) {
-        this.animationObserver.addAll(observers);
+        for (SegueAnimationObserver thisObserver : observers) {
+            addAnimationObserver(thisObserver);
+        }
     }
 
     /**
@@ -138,7 +709,23 @@ public abstract class AnimatedSegue {
      */
     @SuppressWarnings("UnusedReturnValue")
     public boolean removeAnimationObserver(SegueAnimationObserver observer) {
-        return this.animationObserver.remove(observer);
+        synchronized (observerLock) {
+            for (int index = 0; index < animationObserver.length; index++) {
+                FrameMailbox thisMailbox = animationObserver[index];
+
+                if (thisMailbox.getObserver().equals(observer)) {
+                    FrameMailbox[] observers = new FrameMailbox[animationObserver.length - 1];
+                    System.arraycopy(animationObserver, 0, observers, 0, index);
+                    System.arraycopy(animationObserver, index + 1, observers, index, observers.length - index);
+                    animationObserver = observers;
+
+                    thisMailbox.discard();
+                    return true;
+                }
+            }
+
+            return false;
+        }
     }
 
     /**
@@ -171,68 +758,363 @@ public abstract class AnimatedSegue {
     }
 
     /**
-     * Gets the source image in the animation.
+     * Gets the scheduler that drives this segue's animation.
      *
-     * @return The source image.
+     * @return The scheduler; the shared scheduler (see {@link SegueScheduler#getShared()}) if none has been set.
      */
-    public BufferedImage getSource() {
-        return source;
+    public ScheduledExecutorService getScheduler() {
+        return scheduler == null ? SegueScheduler.getShared() : scheduler;
     }
 
     /**
-     * Sets the source image in the animation.
+     * Sets the scheduler that drives this segue's animation. A running segue occupies a scheduler thread only while
+     * rendering a frame, so a single scheduler may be shared amongst any number of segues. Takes effect the next time
+     * the segue is started.
      *
-     * @param source The source image
+     * @param scheduler The scheduler, or null to use the shared scheduler.
      */
-    public void setSource(BufferedImage source) {
-        this.source = source;
+    public void setScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
     }
 
     /**
-     * Gets the destination image in the animation.
+     * Gets the policy used to pace frames when rendering cannot keep up with the frame rate.
      *
-     * @return The destination image.
+     * @return The frame pacing policy.
      */
-    public BufferedImage getDestination() {
-        return destination;
+    public FramePacing getFramePacing() {
+        return framePacing;
     }
 
     /**
-     * Sets the destination image.
+     * Sets the policy used to pace frames when rendering cannot keep up with the frame rate; see {@link FramePacing}.
+     * Takes effect the next time the segue is started.
      *
-     * @param destination The destination image.
+     * @param framePacing The frame pacing policy; {@link FramePacing#FIXED_RATE} by default.
      */
-    public void setDestination(BufferedImage destination) {
-        this.destination = destination;
+    public void setFramePacing(FramePacing framePacing) {
+        this.framePacing = framePacing == null ? FramePacing.FIXED_RATE : framePacing;
     }
 
     /**
-     * Gets the maximum frames per second this animation will produce.
+     * Gets the policy by which this segue samples images it draws scaled; see {@link #setInterpolation(Interpolation)}.
      *
-     * @return The max FPS.
+     * @return The interpolation policy.
      */
-    public int getFps() {
-        return fps;
+    public Interpolation getInterpolation() {
+        return interpolation;
     }
 
     /**
-     * Sets the maximum number of frames per second this animation will produce. Note that, 1) a start frame and an
-     * end frame will always be produced irrespective of maxFps, thus at least two frames will always be produced, and 2)
-     * the actual frames per second will be limited to the CPUs ability to render them in time.
+     * Sets the policy by which this segue samples images it draws scaled (see {@link Interpolation}); has no effect on
+     * segues that draw images only at their original size. Like rendering hints, the policy is not applied when
+     * drawing into a caller-supplied graphics context (see
+     * {@link #render(BufferedImage, BufferedImage, float, Graphics2D)}), whose own interpolation hint is honored.
      *
-     * @param fps The maximim number of frames per second (best effort)
+     * @param interpolation The interpolation policy; {@link Interpolation#NEAREST_NEIGHBOR} by default.
      */
-    public void setFps(int fps) {
-        this.fps = fps;
+    public void setInterpolation(Interpolation interpolation) {
+        this.interpolation = interpolation == null ? Interpolation.NEAREST_NEIGHBOR : interpolation;
     }
 
     /**
-     * Determines if overlay is enabled. In general, when overlay is turned off, the destination image is treated
-     * effectively as opaque and its bounds fully obscure the source even if all or a portion of it is translucent.
-     * <p>
-     * The actual effect this has on animation differs based on the specific renderer.
+     * Gets the rendering hints applied to the graphics contexts into which this segue draws frames, including the
+     * interpolation hint of its interpolation policy; see {@link #setRenderingHints(Map)}.
      *
-     * @return True if overlay is enabled; false otherwise.
+     * @return A copy of the rendering hints.
+     */
+    public RenderingHints getRenderingHints() {
+        RenderingHints hints = (RenderingHints) renderingHints.clone();
+        hints.put(RenderingHints.KEY_INTERPOLATION, interpolation.getRenderingHint());
+        return hints;
+    }
+
+    /**
+     * Sets the rendering hints applied to the graphics contexts into which this segue draws frames (see
+     * {@link #createGraphics(BufferedImage)}); hints not given are left to the Java2D pipeline's defaults. An
+     * interpolation hint, if given, also sets this segue's interpolation policy (see
+     * {@link #setInterpolation(Interpolation)}). Hints are not applied when drawing into a caller-supplied graphics
+     * context (see {@link #render(BufferedImage, BufferedImage, float, Graphics2D)}), whose own hints are honored.
+     * No hints are set by default.
+     *
+     * @param renderingHints The rendering hints, or null to clear all hints (and restore the default interpolation
+     *                       policy, {@link Interpolation#NEAREST_NEIGHBOR}).
+     */
+    public void setRenderingHints(Map<?, ?> renderingHints) {
+        RenderingHints hints = new RenderingHints(null);
+        if (renderingHints != null) {
+            hints.putAll(renderingHints);
+        } else {
+            setInterpolation(Interpolation.NEAREST_NEIGHBOR);
+        }
+
+        Object interpolationHint = hints.remove(RenderingHints.KEY_INTERPOLATION);
+        if (interpolationHint != null) {
+            setInterpolation(Interpolation.forRenderingHint(interpolationHint));
+        }
+
+        this.renderingHints = hints;
+    }
+
+    /**
+     * Sets the rendering hints and the interpolation policy of this segue to those of a predefined profile, trading
+     * rendering speed against fidelity; see {@link RenderingProfile} and {@link #setRenderingHints(Map)}.
+     *
+     * @param renderingProfile The rendering profile, or null to clear all hints and restore the default interpolation
+     *                         policy (as {@link #setRenderingHints(Map)} does given null)
+     */
+    public void setRenderingProfile(RenderingProfile renderingProfile) {
+        setRenderingHints(renderingProfile == null ? null : renderingProfile.getRenderingHints());
+    }
+
+    /**
+     * Creates a graphics context for drawing into a frame, with this segue's rendering hints and interpolation policy
+     * applied (see {@link #setRenderingHints(Map)}). Segues that draw frames with Java2D should create every graphics
+     * context through this method so that they render consistently with one another.
+     *
+     * @param frame The frame to draw into
+     * @return The graphics context, which the caller must dispose.
+     */
+    protected Graphics2D createGraphics(BufferedImage frame) {
+        Graphics2D g = frame.createGraphics();
+        g.addRenderingHints(renderingHints);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolation.getRenderingHint());
+        return g;
+    }
+
+    /**
+     * Gets a value identifying everything that affects the frames this segue renders from given images, other than
+     * the images themselves and the overlay mode: the segue's parameters (see {@link #getParameterKey()}) and its
+     * rendering hints.
+     *
+     * @return An object (implementing equals and hashCode) identifying the segue's rendering configuration.
+     */
+    Object getRenderingKey() {
+        return Arrays.asList(getParameterKey(), getRenderingHints());
+    }
+
+    /**
+     * Gets the cache from which this segue delivers previously rendered frames.
+     *
+     * @return The frame cache, or null if frames are not cached.
+     */
+    public FrameCache getFrameCache() {
+        return frameCache;
+    }
+
+    /**
+     * Sets the cache from which this segue delivers previously rendered frames (see {@link FrameCache}). When set,
+     * frames are rendered only at the progress steps of the animation sequence (see {@link #getFrameProgress(int)}),
+     * and observers must not modify the frames they receive. Frames delivered from a cache are never recycled, even
+     * when frame buffering is enabled. Frames are not cached by default.
+     *
+     * @param frameCache The cache (which may be shared with other segues), or null to disable caching.
+     */
+    public void setFrameCache(FrameCache frameCache) {
+        this.frameCache = frameCache;
+    }
+
+    /**
+     * Gets the number of keyframes this segue memoizes when seeking; see {@link #setKeyframeCount(int)}.
+     *
+     * @return The number of keyframes.
+     */
+    public int getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    /**
+     * Sets the number of keyframes this segue memoizes when seeking (see {@link #seek(float)}). Keyframes are spaced
+     * evenly from progress 0.0 to 1.0 (inclusive) and each is rendered the first time a seek falls nearest to it; more
+     * keyframes shorten the distance segues that support delta rendering must render forward from, at the cost of
+     * retaining one frame apiece. No keyframes are memoized by default.
+     *
+     * @param keyframeCount The number of keyframes, or zero to memoize only the most recently sought frame.
+     */
+    public void setKeyframeCount(int keyframeCount) {
+        this.keyframeCount = Math.max(0, keyframeCount);
+    }
+
+    /**
+     * Determines if this segue plays in reverse; see {@link #setReversed(boolean)}.
+     *
+     * @return True if the segue plays in reverse; false otherwise.
+     */
+    public boolean isReversed() {
+        return isReversed;
+    }
+
+    /**
+     * Sets whether this segue plays in reverse, from progress 1.0 (the destination) back to 0.0 (the source), rather
+     * than forward. Takes effect the next time the segue is started.
+     *
+     * @param isReversed True to play the segue in reverse
+     */
+    public void setReversed(boolean isReversed) {
+        this.isReversed = isReversed;
+    }
+
+    void setSequenceHandoff(Runnable sequenceHandoff) {
+        this.sequenceHandoff = sequenceHandoff;
+    }
+
+    /**
+     * Gets the clock from which this segue's animation progress is computed; see {@link #setClock(SegueClock)}.
+     *
+     * @return The clock.
+     */
+    public SegueClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Sets the clock from which this segue's animation progress (and the deadline of each frame) is computed; by
+     * default, {@link SegueClock#SYSTEM}. When the clock is an {@link ExternalClock}, the animation is driven by the
+     * clock's ticks rather than by this segue's scheduler. Takes effect the next time the segue is started.
+     *
+     * @param clock The clock, or null to use the system clock.
+     */
+    public void setClock(SegueClock clock) {
+        this.clock = clock == null ? SegueClock.SYSTEM : clock;
+    }
+
+    /**
+     * Gets the executor on which observers are notified; see {@link #setObserverExecutor(Executor)}.
+     *
+     * @return The observer executor, or null if observers are notified on the animator thread.
+     */
+    public Executor getObserverExecutor() {
+        return observerExecutor;
+    }
+
+    /**
+     * Sets the executor on which observers are notified, decoupling rendering from observers that are slow to handle
+     * frames (for example, observers that repaint on the Swing event thread or that encode frames). By default
+     * (when null), observers are notified on the animator thread, and the next frame isn't rendered until every
+     * observer has handled the current one.
+     * <p>
+     * When an executor is set, each animation observer receives frames through a mailbox holding only the most
+     * recent frame: an observer that is still handling a frame when further frames are rendered receives only the
+     * latest of them, with damage (see {@link SegueAnimationObserver#onFrameRendered(AnimatedSegue, BufferedImage, Shape)})
+     * covering every change since the frame it last received. Skipped frames are released on the observer's behalf.
+     * An observer is never notified by more than one thread at a time, but consecutive notifications may occur on
+     * different threads of the executor. Completion and metrics observers are notified on the executor as well; with
+     * a single-threaded executor (such as {@code SwingUtilities::invokeLater}), they are notified after the final
+     * frame has been delivered.
+     *
+     * @param observerExecutor The executor on which to notify observers, or null to notify them on the animator thread.
+     */
+    public void setObserverExecutor(Executor observerExecutor) {
+        this.observerExecutor = observerExecutor;
+    }
+
+    /**
+     * Gets the fork-join pool on which frames are rendered in parallel bands.
+     *
+     * @return The render pool, or null if frames are rendered serially.
+     */
+    public ForkJoinPool getRenderPool() {
+        return renderPool;
+    }
+
+    /**
+     * Enables (or disables) parallel rendering. When a render pool is provided, segues supporting band rendering (see
+     * {@link #isBandRenderable()}) divide each frame into horizontal bands that are rendered concurrently on the pool,
+     * and stopping the animation abandons any bands of the current frame not yet rendered. Segues that do not support
+     * band rendering are unaffected. Parallel rendering is disabled by default.
+     *
+     * @param renderPool The pool on which to render bands (typically {@link ForkJoinPool#commonPool()}), or null to
+     *                   render each frame serially on the animator thread.
+     */
+    public void setRenderPool(ForkJoinPool renderPool) {
+        this.renderPool = renderPool;
+    }
+
+    /**
+     * Gets the source image in the animation.
+     *
+     * @return The source image.
+     */
+    public BufferedImage getSource() {
+        return source;
+    }
+
+    /**
+     * Sets the source image in the animation.
+     *
+     * @param source The source image
+     */
+    public void setSource(BufferedImage source) {
+        this.source = source;
+    }
+
+    /**
+     * Gets the destination image in the animation.
+     *
+     * @return The destination image.
+     */
+    public BufferedImage getDestination() {
+        return destination;
+    }
+
+    /**
+     * Sets the destination image.
+     *
+     * @param destination The destination image.
+     */
+    public void setDestination(BufferedImage destination) {
+        this.destination = destination;
+    }
+
+    /**
+     * Gets the maximum frames per second this animation will produce.
+     *
+     * @return The max FPS.
+     */
+    public int getFps() {
+        return fps;
+    }
+
+    /**
+     * Sets the maximum number of frames per second this animation will produce. Note that, 1) a start frame and an
+     * end frame will always be produced irrespective of maxFps, thus at least two frames will always be produced, and 2)
+     * the actual frames per second will be limited to the CPUs ability to render them in time.
+     *
+     * @param fps The maximim number of frames per second (best effort)
+     */
+    public void setFps(int fps) {
+        this.fps = fps;
+    }
+
+    /**
+     * Gets the number of frame buffers this segue recycles; zero when frame buffering is disabled.
+     *
+     * @return The number of frame buffers.
+     */
+    public int getFrameBufferCount() {
+        return framePool.getCapacity();
+    }
+
+    /**
+     * Sets the number of frame buffers this segue recycles (typically two or three, for double or triple buffering).
+     * When enabled, rendered frames are drawn from a pool of reusable images rather than being allocated anew, and
+     * observers that opt in via {@link SegueAnimationObserver#releasesFrames()} must return each frame with
+     * {@link #releaseFrame(BufferedImage)} once painted. Frames are only recycled when every registered observer has
+     * opted in; otherwise observers retain ownership of each frame, as when buffering is disabled (the default).
+     *
+     * @param frameBufferCount The number of frame buffers to retain, or zero to disable frame buffering.
+     */
+    public void setFrameBufferCount(int frameBufferCount) {
+        framePool.setCapacity(frameBufferCount);
+    }
+
+    /**
+     * Determines if overlay is enabled. In general, when overlay is turned off, the destination image is treated
+     * effectively as opaque and its bounds fully obscure the source even if all or a portion of it is translucent.
+     * <p>
+     * The actual effect this has on animation differs based on the specific renderer.
+     *
+     * @return True if overlay is enabled; false otherwise.
      */
     public boolean isOverlay() {
         return isOverlay;
@@ -247,30 +1129,153 @@ public abstract class AnimatedSegue {
         this.isOverlay = isOverlay;
     }
 
-    private void fireFrameRendered(BufferedImage image) {
-        for (SegueAnimationObserver thisObserver : animationObserver.toArray(new SegueAnimationObserver[0])) {
-            thisObserver.onFrameRendered(this, image);
+    /**
+     * Takes the frame rendered by {@link #prepare()}, provided it's still a valid first frame for an animation in the
+     * given direction.
+     *
+     * @return The prepared frame, or null if there is none.
+     */
+    private BufferedImage takePreparedFrame(boolean reversed) {
+        PreparedFrame prepared = preparedFrame;
+        preparedFrame = null;
+
+        if (prepared == null) {
+            return null;
+        } else if (prepared.source == source && prepared.destination == destination &&
+                prepared.isOverlay == isOverlay && prepared.isReversed == reversed) {
+            return prepared.frame;
         }
+
+        framePool.release(prepared.frame);
+        return null;
     }
 
-    private void fireCompleted() {
-        for (SegueCompletionObserver thisObserver : completionObserver.toArray(new SegueCompletionObserver[0])) {
-            thisObserver.onSegueAnimationCompleted(this);
+    private OffHeapImages.Storage getFrameStorage() {
+        BufferedImage source = this.source;
+        BufferedImage destination = this.destination;
+        OffHeapImages.Storage storage = source == null ? null : OffHeapImages.getStorage(source);
+
+        // A painted source (see PaintedImage) is stored on the heap even when its destination is not
+        return storage == null && destination != null ? OffHeapImages.getStorage(destination) : storage;
+    }
+
+    private ColorModel getFrameColorModel() {
+        BufferedImage source = this.source;
+
+        if (source != null) {
+            ColorModel colorModel = source.getColorModel();
+            if (colorModel.hasAlpha() && !(colorModel instanceof IndexColorModel)) {
+                return colorModel;
+            }
         }
+
+        return ColorModel.getRGBdefault();
     }
 
-    private float getProgress() {
-        float progress = ((float) (System.currentTimeMillis() - startTime) / (float) durationMs);
+    private BufferedImage renderProgress(float progress, BooleanSupplier cancelled) {
+        assertImages();
 
-        if (progress < 0f) {
-            return 0f;
-        } else if (progress > 1.0f) {
-            return 1.0f;
+        FrameCache frameCache = this.frameCache;
+        if (frameCache == null) {
+            return renderUncached(progress, cancelled);
         }
 
-        return progress;
+        // Snap progress to the nearest step of the sequence so that every run renders (and caches) the same frames
+        int steps = getFrameCount() - 1;
+        int step = Math.round(progress * steps);
+        FrameCache.Key key = frameCache.getKey(this, source, destination, steps, step);
+
+        BufferedImage frame = frameCache.get(key);
+        if (frame == null) {
+            frame = renderUncached(getRenderedProgress(progress), cancelled);
+
+            if (!cancelled.getAsBoolean()) {
+                framePool.detach(frame);
+                frameCache.put(key, frame);
+            }
+        }
+
+        return frame;
+    }
+
+    /**
+     * Gets the progress at which a frame requested at the given progress is actually rendered; differs from the
+     * requested progress only when frames are cached.
+     */
+    private float getRenderedProgress(float progress) {
+        if (frameCache == null) {
+            return progress;
+        }
+
+        int steps = getFrameCount() - 1;
+        int step = Math.round(progress * steps);
+        return step == steps ? 1.0f : (float) step / (float) steps;
+    }
+
+    private BufferedImage renderUncached(float progress, BooleanSupplier cancelled) {
+        ForkJoinPool renderPool = this.renderPool;
+        if (renderPool == null || !isBandRenderable() || source.getHeight() < MIN_BAND_HEIGHT * 2) {
+            return render(source, destination, progress);
+        }
+
+        // Split the frame into a few bands per worker; small enough to balance load and to abandon quickly on stop
+        int bandCount = Math.min(renderPool.getParallelism() * 4, source.getHeight() / MIN_BAND_HEIGHT);
+        int bandHeight = (source.getHeight() + bandCount - 1) / bandCount;
+
+        BufferedImage frame = newFrame(source.getWidth(), source.getHeight());
+        renderPool.invoke(new BandedRender(this, source, destination, progress, frame, bandHeight, cancelled));
+        return frame;
     }
 
+    private void fireFrameRendered(BufferedImage image, Shape damage) {
+        FrameMailbox[] observers = animationObserver;
+        Executor executor = observerExecutor;
+
+        // Frame can be recycled only if every observer promises to release it
+        boolean recyclable = true;
+        for (FrameMailbox thisObserver : observers) {
+            recyclable = recyclable && thisObserver.getObserver().releasesFrames();
+        }
+
+        if (recyclable) {
+            framePool.retain(image, observers.length);
+        } else {
+            framePool.detach(image);
+        }
+
+        for (FrameMailbox thisObserver : observers) {
+            thisObserver.post(image, damage, executor);
+        }
+
+        // Relinquish the animator's own lease on the frame
+        if (recyclable) {
+            framePool.release(image);
+        }
+    }
+
+    private void fireMetrics(SegueMetrics metrics) {
+        for (SegueMetricsObserver thisObserver : metricsObserver) {
+            dispatch(() -> thisObserver.onSegueMetrics(this, metrics));
+        }
+    }
+
+    private void fireCompleted() {
+        for (SegueCompletionObserver thisObserver : completionObserver) {
+            dispatch(() -> thisObserver.onSegueAnimationCompleted(this));
+        }
+    }
+
+    private void dispatch(Runnable notification) {
+        Executor executor = observerExecutor;
+
+        if (executor == null) {
+            notification.run();
+        } else {
+            executor.execute(notification);
+        }
+    }
+
+
     private void assertImages() {
         if (this.source == null || this.destination == null) {
             throw new IllegalStateException("Neither source nor destination image may be null.");
@@ -281,4 +1286,427 @@ public abstract class AnimatedSegue {
         }
     }
 
+    /**
+     * A single run of this segue's animation; invoked periodically by the scheduler (or by the ticks of an external
+     * clock) until complete or cancelled. All times are measured by the segue's clock.
+     */
+    private class Animation implements Runnable {
+
+        private final FramePacing pacing;
+        private final SegueClock clock;
+        private final long startNanos;
+        private final boolean reversed;
+        private final SegueMetrics metrics;
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private volatile boolean done;
+        private volatile ScheduledFuture<?> future;
+        private long periodNanos;
+        private long firstTickNanos;
+        private long nextDeadlineNanos;
+        private long lastSlot;
+        private float lastProgress = Float.NaN;
+
+        Animation(FramePacing pacing, SegueClock clock, long startNanos, boolean reversed) {
+            this.pacing = pacing;
+            this.clock = clock;
+            this.startNanos = startNanos;
+            this.reversed = reversed;
+            this.metrics = new SegueMetrics(fps, clock.nanoTime());
+        }
+
+        ScheduledFuture<?> schedule(ScheduledExecutorService scheduler, long periodNanos) {
+            this.periodNanos = Math.max(1, periodNanos);
+            firstTickNanos = nextDeadlineNanos = clock.nanoTime();
+
+            if (clock instanceof ExternalClock) {
+                future = new ClockTicks((ExternalClock) clock, this);
+            } else {
+                future = scheduler.scheduleAtFixedRate(this, 0, this.periodNanos, TimeUnit.NANOSECONDS);
+            }
+
+            return future;
+        }
+
+        void cancel() {
+            done = true;
+
+            if (future != null) {
+                future.cancel(false);
+            }
+
+            if (finished.compareAndSet(false, true)) {
+                SegueMonitor.segueStopped(AnimatedSegue.this, metrics);
+            }
+        }
+
+        /**
+         * Renders the frame at the given point of the animation and delivers it to observers (unless the animation is
+         * stopped while rendering an intermediate frame), recording its render and dispatch latencies.
+         *
+         * @param elapsed  The fraction of the animation's duration that has elapsed; the progress of the frame, unless
+         *                 the animation is reversed
+         * @param prepared The frame, if already rendered; otherwise null
+         * @return True if the frame was delivered; false otherwise.
+         */
+        boolean deliver(float elapsed, BufferedImage prepared) {
+            float progress = reversed ? 1.0f - elapsed : elapsed;
+
+            long allocatedBytes = SegueMetrics.getCurrentThreadAllocatedBytes();
+            long renderStartNanos = System.nanoTime();
+            BufferedImage frame = prepared != null ? prepared : renderProgress(progress, () -> done);
+            long renderEndNanos = System.nanoTime();
+
+            if (allocatedBytes >= 0) {
+                allocatedBytes = SegueMetrics.getCurrentThreadAllocatedBytes() - allocatedBytes;
+            }
+
+            if (done && elapsed < 1.0f) {
+                return false;
+            }
+
+            // The first frame is entirely new; thereafter, only what changed since the previous frame is damaged
+            float renderedProgress = getRenderedProgress(progress);
+            Shape damage = Float.isNaN(lastProgress) ?
+                    new Rectangle(0, 0, frame.getWidth(), frame.getHeight()) :
+                    getDamage(frame.getWidth(), frame.getHeight(), lastProgress, renderedProgress);
+            lastProgress = renderedProgress;
+
+            fireFrameRendered(frame, damage);
+
+            long dispatchEndNanos = System.nanoTime();
+            metrics.recordFrame(renderEndNanos - renderStartNanos, dispatchEndNanos - renderEndNanos, allocatedBytes, clock.nanoTime());
+            return true;
+        }
+
+        boolean isDone() {
+            return done || future == null || future.isDone();
+        }
+
+        private float getProgress(long nanoTime) {
+            float progress = (float) (nanoTime - startNanos) / (float) TimeUnit.MILLISECONDS.toNanos(durationMs);
+
+            if (progress < 0f) {
+                return 0f;
+            } else if (progress > 1.0f) {
+                return 1.0f;
+            }
+
+            return progress;
+        }
+
+        /**
+         * Accounts for a frame that began on the tick at tickNanos and was delivered at finishNanos, advancing the
+         * deadline of the next frame to the first tick following delivery.
+         */
+        private void pace(long tickNanos, long finishNanos) {
+            long tick = (tickNanos - firstTickNanos) / periodNanos;
+            long nextTick = (finishNanos - firstTickNanos) / periodNanos + 1;
+
+            if (nextTick > tick + 1) {
+                metrics.recordLateFrame(pacing == FramePacing.DEADLINE ? (int) (nextTick - tick - 1) : 0);
+            }
+
+            nextDeadlineNanos = firstTickNanos + nextTick * periodNanos;
+        }
+
+        @Override
+        public void run() {
+            if (done) {
+                cancel();
+                return;
+            }
+
+            long tickNanos = clock.nanoTime();
+
+            if (getProgress(tickNanos) < 1.0f) {
+
+                if (clock instanceof ExternalClock) {
+
+                    // Render at most one frame per frame period, however fast an external clock ticks
+                    long slot = (tickNanos - firstTickNanos + periodNanos / 2) / periodNanos;
+                    if (slot <= lastSlot) {
+                        return;
+                    }
+
+                    lastSlot = slot;
+                } else if (pacing == FramePacing.DEADLINE && tickNanos < nextDeadlineNanos - periodNanos / 2) {
+
+                    // Coalesce ticks that the scheduler fires back-to-back to catch up after a frame overran its deadline
+                    return;
+                }
+
+                if (deliver(getProgress(tickNanos), null)) {
+                    pace(tickNanos, clock.nanoTime());
+                }
+            } else {
+                // Always assure we end with a frame using progress = 1.0 (or 0.0, when reversed)
+                deliver(1.0f, null);
+                metrics.recordCompleted();
+
+                cancel();
+
+                // Start the next segue of a sequence before anyone else learns that this one is finished
+                Runnable handoff = sequenceHandoff;
+                if (handoff != null) {
+                    handoff.run();
+                }
+
+                fireMetrics(metrics);
+                fireCompleted();
+            }
+        }
+    }
+
+    /**
+     * Renders the frames requested by {@link #seek(float)}; at most one seek is rendered at a time, and requests made
+     * while rendering replace one another (latest request wins).
+     */
+    private class Seeker implements Runnable {
+
+        private final AtomicInteger pending = new AtomicInteger(NO_SEEK);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private Keyframes keyframes;
+
+        void post(float progress, Executor executor) {
+            pending.set(Float.floatToIntBits(progress));
+
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        void discard() {
+            pending.set(NO_SEEK);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    int request = pending.getAndSet(NO_SEEK);
+
+                    if (request == NO_SEEK) {
+                        scheduled.set(false);
+
+                        // A seek may have been requested after none was found, but before this was unscheduled
+                        if (pending.get() == NO_SEEK || !scheduled.compareAndSet(false, true)) {
+                            return;
+                        }
+                    } else {
+                        seekTo(Float.intBitsToFloat(request));
+                    }
+                }
+            } catch (RuntimeException e) {
+                scheduled.set(false);
+                throw e;
+            }
+        }
+
+        private void seekTo(float progress) {
+            BufferedImage source = AnimatedSegue.this.source;
+            BufferedImage destination = AnimatedSegue.this.destination;
+            assertImages();
+
+            if (keyframes == null || !keyframes.isFor(source, destination, isOverlay, getRenderingKey(), keyframeCount)) {
+                if (keyframes != null) {
+                    keyframes.discard();
+                }
+
+                keyframes = new Keyframes(source, destination, isOverlay, getRenderingKey(), keyframeCount);
+            }
+
+            float nearestProgress = keyframes.getNearestProgress(progress);
+            BufferedImage frame;
+            float renderedProgress;
+
+            if (nearestProgress == progress) {
+                frame = keyframes.getNearest(progress);
+                renderedProgress = progress;
+            } else if (Float.isNaN(nearestProgress) || !isDeltaRenderable()) {
+                frame = renderProgress(progress, () -> false);
+                renderedProgress = getRenderedProgress(progress);
+            } else {
+
+                // Render forward (or backward) from a copy of the nearest memoized frame
+                BufferedImage base = keyframes.getNearest(progress);
+
+                frame = newFrame(source.getWidth(), source.getHeight());
+                Graphics2D g = frame.createGraphics();
+                g.setComposite(AlphaComposite.Src);
+                g.drawImage(base, 0, 0, null);
+                g.dispose();
+
+                renderDelta(source, destination, frame, nearestProgress, progress);
+                renderedProgress = progress;
+            }
+
+            Shape damage = keyframes.lastFrame == null ?
+                    new Rectangle(0, 0, frame.getWidth(), frame.getHeight()) :
+                    getDamage(frame.getWidth(), frame.getHeight(), keyframes.lastProgress, renderedProgress);
+
+            // Hold a lease on the frame so that it remains intact for as long as it's memoized
+            framePool.retain(frame, 1);
+            fireFrameRendered(frame, damage);
+            keyframes.setLastFrame(frame, renderedProgress);
+        }
+    }
+
+    /**
+     * The frames memoized for seeking, along with the inputs from which they were rendered: evenly spaced keyframes,
+     * each rendered on first use, and the most recently sought frame.
+     */
+    private class Keyframes {
+        private final BufferedImage source;
+        private final BufferedImage destination;
+        private final boolean isOverlay;
+        private final Object renderingKey;
+        private final BufferedImage[] frames;
+        private final float[] progress;
+        private BufferedImage lastFrame;
+        private float lastProgress;
+
+        Keyframes(BufferedImage source, BufferedImage destination, boolean isOverlay, Object renderingKey, int count) {
+            this.source = source;
+            this.destination = destination;
+            this.isOverlay = isOverlay;
+            this.renderingKey = renderingKey;
+            this.frames = new BufferedImage[count];
+            this.progress = new float[count];
+
+            for (int index = 0; index < count; index++) {
+                progress[index] = count == 1 ? 0f : index == count - 1 ? 1.0f : (float) index / (float) (count - 1);
+            }
+        }
+
+        boolean isFor(BufferedImage source, BufferedImage destination, boolean isOverlay, Object renderingKey, int count) {
+            return this.source == source && this.destination == destination && this.isOverlay == isOverlay &&
+                    Objects.equals(this.renderingKey, renderingKey) && frames.length == count;
+        }
+
+        /**
+         * Gets the progress of the memoized frame nearest the given progress (whether or not that keyframe has been
+         * rendered yet), or NaN if nothing is memoized.
+         */
+        float getNearestProgress(float progress) {
+            int keyframe = getNearestKeyframe(progress);
+            return isLastFrameNearest(progress, keyframe) ? lastProgress : keyframe < 0 ? Float.NaN : this.progress[keyframe];
+        }
+
+        /**
+         * Gets the memoized frame nearest the given progress, rendering the nearest keyframe if it has not yet been
+         * rendered; see {@link #getNearestProgress(float)}.
+         */
+        BufferedImage getNearest(float progress) {
+            int keyframe = getNearestKeyframe(progress);
+
+            if (isLastFrameNearest(progress, keyframe)) {
+                return lastFrame;
+            }
+
+            if (frames[keyframe] == null) {
+                frames[keyframe] = renderUncached(this.progress[keyframe], () -> false);
+
+                // Keyframes are retained indefinitely, so they must never be recycled
+                framePool.detach(frames[keyframe]);
+            }
+
+            return frames[keyframe];
+        }
+
+        void setLastFrame(BufferedImage frame, float progress) {
+            if (lastFrame != null) {
+                framePool.release(lastFrame);
+            }
+
+            lastFrame = frame;
+            lastProgress = progress;
+        }
+
+        void discard() {
+            setLastFrame(null, Float.NaN);
+        }
+
+        private boolean isLastFrameNearest(float progress, int keyframe) {
+            return lastFrame != null && (keyframe < 0 || Math.abs(lastProgress - progress) <= Math.abs(this.progress[keyframe] - progress));
+        }
+
+        private int getNearestKeyframe(float progress) {
+            return frames.length == 0 ? -1 : Math.round(progress * (frames.length - 1));
+        }
+    }
+
+    /**
+     * A first frame rendered ahead of time by {@link #prepare()}, along with the inputs from which it was rendered.
+     */
+    private static class PreparedFrame {
+        private final BufferedImage frame;
+        private final BufferedImage source;
+        private final BufferedImage destination;
+        private final boolean isOverlay;
+        private final boolean isReversed;
+
+        PreparedFrame(BufferedImage frame, BufferedImage source, BufferedImage destination, boolean isOverlay, boolean isReversed) {
+            this.frame = frame;
+            this.source = source;
+            this.destination = destination;
+            this.isOverlay = isOverlay;
+            this.isReversed = isReversed;
+        }
+    }
+
+    /**
+     * The pixels held by a frame rendered by {@link #deltaFrame(BufferedImage, BufferedImage, float)}: the inputs and
+     * settings from which it was rendered, and its progress.
+     */
+    private static class DeltaContent {
+        private final Object key;
+        private final float progress;
+
+        DeltaContent(Object key, float progress) {
+            this.key = key;
+            this.progress = progress;
+        }
+    }
+
+    /**
+     * The future of an animation driven by the ticks of an external clock; runs the animation on every tick until
+     * cancelled.
+     */
+    private static class ClockTicks extends FutureTask<Void> implements ScheduledFuture<Void> {
+        private final ExternalClock clock;
+        private final Runnable animation;
+
+        ClockTicks(ExternalClock clock, Runnable animation) {
+            super(() -> {
+            }, null);
+
+            this.clock = clock;
+            this.animation = animation;
+            clock.addTickListener(this);
+        }
+
+        @Override
+        public void run() {
+            if (!isDone()) {
+                animation.run();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            clock.removeTickListener(this);
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return 0;
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
 }
@@ -0,0 +1,68 @@
+package com.defano.jsegue;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Renders a frame as a set of horizontal bands, recursively splitting the frame's rows into subtasks so that bands are
+ * rendered concurrently on a fork-join pool.
+ */
+class BandedRender extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AnimatedSegue segue;
+    private final BufferedImage src;
+    private final BufferedImage dst;
+    private final float progress;
+    private final BufferedImage frame;
+    private final int fromRow;
+    private final int toRow;
+    private final int bandHeight;
+    private final BooleanSupplier cancelled;
+
+    /**
+     * Creates a task that renders all rows of a frame in bands of (approximately) the given height.
+     *
+     * @param segue      The segue whose bands are being rendered
+     * @param src        The source image
+     * @param dst        The destination image
+     * @param progress   The progress of the frame being rendered
+     * @param frame      The frame into which bands are rendered
+     * @param bandHeight The maximum height of each band
+     * @param cancelled  Indicates whether rendering has been cancelled; bands not yet started when cancelled are
+     *                   skipped
+     */
+    BandedRender(AnimatedSegue segue, BufferedImage src, BufferedImage dst, float progress, BufferedImage frame, int bandHeight, BooleanSupplier cancelled) {
+        this(segue, src, dst, progress, frame, 0, frame.getHeight(), bandHeight, cancelled);
+    }
+
+    private BandedRender(AnimatedSegue segue, BufferedImage src, BufferedImage dst, float progress, BufferedImage frame, int fromRow, int toRow, int bandHeight, BooleanSupplier cancelled) {
+        this.segue = segue;
+        this.src = src;
+        this.dst = dst;
+        this.progress = progress;
+        this.frame = frame;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+        this.bandHeight = bandHeight;
+        this.cancelled = cancelled;
+    }
+
+    @Override
+    protected void compute() {
+        if (cancelled.getAsBoolean()) {
+            return;
+        }
+
+        if (toRow - fromRow <= bandHeight) {
+            segue.renderBand(src, dst, progress, frame, new Rectangle(0, fromRow, frame.getWidth(), toRow - fromRow));
+        } else {
+            int midRow = fromRow + (toRow - fromRow) / 2;
+            invokeAll(new BandedRender(segue, src, dst, progress, frame, fromRow, midRow, bandHeight, cancelled),
+                    new BandedRender(segue, src, dst, progress, frame, midRow, toRow, bandHeight, cancelled));
+        }
+    }
+}
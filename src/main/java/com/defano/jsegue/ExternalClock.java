@@ -0,0 +1,70 @@
+package com.defano.jsegue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A clock whose time advances only when it is ticked, and which drives the animation of every segue using it (see
+ * {@link AnimatedSegue#setClock(SegueClock)}) in place of the segue's scheduler. Each tick updates the clock's time and
+ * gives each running segue the opportunity to render a frame, on the ticking thread.
+ * <p>
+ * Useful for synchronizing animation with a display's refresh cycle: tick the clock from the refresh callback,
+ * ideally with the timestamp of the frame being displayed. Segues never render more frames than their frame rate
+ * allows (see {@link AnimatedSegue#setFps(int)}), so ticking faster than a segue's frame rate has no ill effect.
+ */
+public class ExternalClock implements SegueClock {
+
+    private final List<Runnable> tickListeners = new CopyOnWriteArrayList<>();
+    private volatile long nanoTime;
+
+    /**
+     * Creates an external clock whose time starts at the current system time ({@link System#nanoTime()}).
+     */
+    public ExternalClock() {
+        this(System.nanoTime());
+    }
+
+    /**
+     * Creates an external clock whose time starts at the given time.
+     *
+     * @param nanoTime The initial time of the clock, in nanoseconds
+     */
+    protected ExternalClock(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long nanoTime() {
+        return nanoTime;
+    }
+
+    /**
+     * Ticks the clock at the current system time ({@link System#nanoTime()}).
+     */
+    public void tick() {
+        tick(System.nanoTime());
+    }
+
+    /**
+     * Ticks the clock, setting its time and rendering (on the calling thread) any frames due at that time.
+     *
+     * @param nanoTime The time of the tick, in nanoseconds; ticks earlier than the clock's current time do not change
+     *                 its time.
+     */
+    public synchronized void tick(long nanoTime) {
+        this.nanoTime = Math.max(this.nanoTime, nanoTime);
+
+        for (Runnable thisListener : tickListeners) {
+            thisListener.run();
+        }
+    }
+
+    void addTickListener(Runnable listener) {
+        tickListeners.add(listener);
+    }
+
+    void removeTickListener(Runnable listener) {
+        tickListeners.remove(listener);
+    }
+}
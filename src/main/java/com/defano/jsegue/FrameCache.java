@@ -0,0 +1,397 @@
+package com.defano.jsegue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * A memory-bounded cache of rendered frames, shared by any number of segues, that makes replaying an identical segue
+ * (same effect, effect parameters, images, size and overlay mode) a matter of delivering previously rendered frames.
+ * <p>
+ * Segues using a cache (see {@link AnimatedSegue#setFrameCache(FrameCache)}) render frames only at the evenly spaced
+ * progress steps of their animation sequence (see {@link AnimatedSegue#getFrameProgress(int)}); progress values
+ * falling between steps are rounded to the nearest step, so that every run of the segue produces the same frames.
+ * When the total size of the cached frames exceeds the cache's byte budget, the least recently used frames are evicted.
+ * <p>
+ * Cached frames are delivered to every run of a segue that hits the cache, so observers must not modify the frames
+ * they receive. Likewise, images must not be modified while being animated by a cached segue; if images are modified
+ * in place between runs, use {@link ImageKeying#CONTENT} keying.
+ */
+public class FrameCache {
+
+    /**
+     * Strategies for deciding whether two segue images are the same image.
+     */
+    public enum ImageKeying {
+
+        /**
+         * Images are the same only if they are the same object. Cheap, but a segue built anew from copies of the same
+         * images (or from paints, see {@link SegueBuilder#withSource(java.awt.Paint)}) never hits the cache.
+         */
+        IDENTITY,
+
+        /**
+         * Images are the same if they have the same dimensions and pixels. The first time an image is animated, its
+         * pixels are hashed and compared to those of the image first animated with the same hash, and the match is
+         * remembered for as long as the image remains reachable. Only that first image is kept (weakly) for
+         * comparison, so images match only while it remains reachable; once it is garbage collected, the next image
+         * with its content takes its place, and images seen afterwards no longer hit frames rendered from the first.
+         */
+        CONTENT
+    }
+
+    private final Map<Key, BufferedImage> frames = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<BufferedImage, ImageContent> contentKeys = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<Long, ImageContent> contents = new HashMap<>();
+    private final long maxBytes;
+    private final ImageKeying imageKeying;
+    private long sizeBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Creates a frame cache that keys images by identity.
+     *
+     * @param maxBytes The maximum total size of the cached frames, in bytes.
+     */
+    public FrameCache(long maxBytes) {
+        this(maxBytes, ImageKeying.IDENTITY);
+    }
+
+    /**
+     * Creates a frame cache.
+     *
+     * @param maxBytes    The maximum total size of the cached frames, in bytes.
+     * @param imageKeying How source and destination images are compared.
+     */
+    public FrameCache(long maxBytes, ImageKeying imageKeying) {
+        this.maxBytes = Math.max(0, maxBytes);
+        this.imageKeying = imageKeying;
+    }
+
+    /**
+     * Gets the maximum total size of the frames this cache retains.
+     *
+     * @return The byte budget.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Gets the total size of the frames presently cached.
+     *
+     * @return The number of bytes cached.
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Gets the number of frames presently cached.
+     *
+     * @return The number of frames.
+     */
+    public synchronized int getFrameCount() {
+        return frames.size();
+    }
+
+    /**
+     * Gets the number of frames that were delivered from the cache.
+     *
+     * @return The hit count.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of frames that had to be rendered because they were not cached.
+     *
+     * @return The miss count.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of frames evicted from the cache to remain within its byte budget.
+     *
+     * @return The eviction count.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets how this cache compares source and destination images.
+     *
+     * @return The image keying strategy.
+     */
+    public ImageKeying getImageKeying() {
+        return imageKeying;
+    }
+
+    /**
+     * Removes every frame from the cache; hit, miss and eviction counts are unaffected.
+     */
+    public synchronized void clear() {
+        frames.clear();
+        sizeBytes = 0;
+    }
+
+    /**
+     * Creates the key identifying a frame of a segue.
+     *
+     * @param segue         The segue rendering the frame
+     * @param src           The segue's source image
+     * @param dst           The segue's destination image
+     * @param progressSteps The number of progress steps in the segue's animation sequence
+     * @param step          The step being rendered, between 0 and progressSteps (inclusive)
+     * @return The frame's key.
+     */
+    Key getKey(AnimatedSegue segue, BufferedImage src, BufferedImage dst, int progressSteps, int step) {
+        return new Key(segue.getClass(), segue.getRenderingKey(), getImageKey(src), getImageKey(dst), src.getWidth(),
+                src.getHeight(), segue.isOverlay(), progressSteps, step);
+    }
+
+    /**
+     * Gets a cached frame, counting the lookup as a hit or a miss.
+     *
+     * @param key The frame's key
+     * @return The cached frame, or null if the frame is not cached.
+     */
+    synchronized BufferedImage get(Key key) {
+        BufferedImage frame = frames.get(key);
+
+        if (frame == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+
+        return frame;
+    }
+
+    /**
+     * Adds a frame to the cache, evicting the least recently used frames as required to remain within budget. Frames
+     * larger than the entire budget are not cached.
+     *
+     * @param key   The frame's key
+     * @param frame The frame
+     */
+    synchronized void put(Key key, BufferedImage frame) {
+        long frameBytes = getSizeBytes(frame);
+        if (frameBytes > maxBytes) {
+            return;
+        }
+
+        BufferedImage replaced = frames.put(key, frame);
+        sizeBytes += frameBytes - (replaced == null ? 0 : getSizeBytes(replaced));
+
+        Iterator<BufferedImage> eldest = frames.values().iterator();
+        while (sizeBytes > maxBytes && eldest.hasNext()) {
+            sizeBytes -= getSizeBytes(eldest.next());
+            eldest.remove();
+            evictionCount++;
+        }
+    }
+
+    private Object getImageKey(BufferedImage image) {
+        if (imageKeying == ImageKeying.IDENTITY) {
+            return new ImageIdentity(image);
+        }
+
+        ImageContent content = contentKeys.get(image);
+        if (content == null) {
+            content = getContent(image);
+            contentKeys.put(image, content);
+        }
+
+        return content;
+    }
+
+    /**
+     * Gets the content of an image not seen before: that of the image first seen with the same hash if their pixels
+     * are the same, or else a new content (which becomes the hash's first image unless another is still reachable).
+     */
+    private ImageContent getContent(BufferedImage image) {
+        long hash = getContentHash(image);
+        ImageContent content;
+
+        synchronized (contents) {
+            content = contents.get(hash);
+        }
+
+        // Compare pixels outside the lock; a match is found once per image, and costs about as much as its hash
+        BufferedImage match = content == null ? null : content.image.get();
+        if (match != null && hasSamePixels(match, image)) {
+            return content;
+        }
+
+        ImageContent created = new ImageContent(image);
+        if (match == null) {
+            synchronized (contents) {
+                contents.values().removeIf(ImageContent::isCleared);
+                contents.put(hash, created);
+            }
+        }
+
+        return created;
+    }
+
+    static long getContentHash(BufferedImage image) {
+        int width = image.getWidth();
+        int[] row = new int[width];
+        long hash = 0xcbf29ce484222325L;
+
+        for (int y = 0; y < image.getHeight(); y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int pixel : row) {
+                hash = (hash ^ pixel) * 0x100000001b3L;
+            }
+        }
+
+        return hash;
+    }
+
+    private static boolean hasSamePixels(BufferedImage a, BufferedImage b) {
+        if (a.getWidth() != b.getWidth() || a.getHeight() != b.getHeight()) {
+            return false;
+        }
+
+        int width = a.getWidth();
+        int[] aRow = new int[width];
+        int[] bRow = new int[width];
+
+        for (int y = 0; y < a.getHeight(); y++) {
+            a.getRGB(0, y, width, 1, aRow, 0, width);
+            b.getRGB(0, y, width, 1, bRow, 0, width);
+            if (!Arrays.equals(aRow, bRow)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    static long getSizeBytes(BufferedImage frame) {
+        DataBuffer buffer = frame.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+
+    /**
+     * Identifies an image by reference without preventing it from being garbage collected; frames keyed by a
+     * collected image can never be hit again and are eventually evicted.
+     */
+    static class ImageIdentity {
+        private final WeakReference<BufferedImage> image;
+        private final int hashCode;
+
+        ImageIdentity(BufferedImage image) {
+            this.image = new WeakReference<>(image);
+            this.hashCode = System.identityHashCode(image);
+        }
+
+        /**
+         * Determines whether the image has been garbage collected.
+         *
+         * @return True if the image no longer exists.
+         */
+        boolean isCleared() {
+            return image.get() == null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            BufferedImage referent = image.get();
+            return referent != null && referent == ((ImageIdentity) o).image.get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * The content of an image, compared by identity; images with the same pixels share one content. Once the first image
+     * with a content has been garbage collected, images seen afterwards no longer share it, so frames keyed by it are
+     * hit only by images that already did, and are eventually evicted.
+     */
+    static class ImageContent {
+        private final WeakReference<BufferedImage> image;
+
+        ImageContent(BufferedImage image) {
+            this.image = new WeakReference<>(image);
+        }
+
+        /**
+         * Determines whether the image first seen with this content has been garbage collected.
+         *
+         * @return True if the image no longer exists.
+         */
+        boolean isCleared() {
+            return image.get() == null;
+        }
+    }
+
+    /**
+     * The identity of a cached frame.
+     */
+    static class Key {
+        private final Class<? extends AnimatedSegue> effect;
+        private final Object parameters;
+        private final Object source;
+        private final Object destination;
+        private final int width;
+        private final int height;
+        private final boolean overlay;
+        private final int progressSteps;
+        private final int step;
+
+        Key(Class<? extends AnimatedSegue> effect, Object parameters, Object source, Object destination, int width, int height, boolean overlay, int progressSteps, int step) {
+            this.effect = effect;
+            this.parameters = parameters;
+            this.source = source;
+            this.destination = destination;
+            this.width = width;
+            this.height = height;
+            this.overlay = overlay;
+            this.progressSteps = progressSteps;
+            this.step = step;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return width == key.width &&
+                    height == key.height &&
+                    overlay == key.overlay &&
+                    progressSteps == key.progressSteps &&
+                    step == key.step &&
+                    effect == key.effect &&
+                    Objects.equals(parameters, key.parameters) &&
+                    source.equals(key.source) &&
+                    destination.equals(key.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(effect, parameters, source, destination, width, height, overlay, progressSteps, step);
+        }
+    }
+}
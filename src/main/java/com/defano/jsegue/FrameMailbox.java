@@ -0,0 +1,123 @@
+package com.defano.jsegue;
+
+import java.awt.*;
+import java.awt.geom.Area;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers frames to a single animation observer, either synchronously or on an executor (see
+ * {@link AnimatedSegue#setObserverExecutor(Executor)}).
+ * <p>
+ * When delivering on an executor, the mailbox holds at most one undelivered frame: a frame posted before its
+ * predecessor was delivered replaces it (latest frame wins). The replaced frame's lease is released on the
+ * observer's behalf, and its damage is merged into that of its replacement, so that the damage delivered with each
+ * frame still describes everything that changed since the previous frame the observer received.
+ */
+class FrameMailbox implements Runnable {
+
+    private final AnimatedSegue segue;
+    private final SegueAnimationObserver observer;
+    private final FramePool framePool;
+    private final AtomicReference<Delivery> pending = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    FrameMailbox(AnimatedSegue segue, SegueAnimationObserver observer, FramePool framePool) {
+        this.segue = segue;
+        this.observer = observer;
+        this.framePool = framePool;
+    }
+
+    SegueAnimationObserver getObserver() {
+        return observer;
+    }
+
+    /**
+     * Delivers a frame to the observer; synchronously when no executor is given, otherwise through this mailbox.
+     *
+     * @param frame    The frame
+     * @param damage   The region of the frame that changed since the previous frame posted
+     * @param executor The executor on which to deliver the frame, or null to deliver it on the calling thread
+     */
+    void post(BufferedImage frame, Shape damage, Executor executor) {
+        if (executor == null) {
+            observer.onFrameRendered(segue, frame, damage);
+            return;
+        }
+
+        Delivery replaced;
+        Delivery delivery;
+        do {
+            replaced = pending.get();
+            delivery = new Delivery(frame, replaced == null ? damage : union(replaced.damage, damage));
+        } while (!pending.compareAndSet(replaced, delivery));
+
+        // The observer never sees the replaced frame, so it can't release it
+        if (replaced != null) {
+            framePool.release(replaced.frame);
+        }
+
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+    /**
+     * Discards the undelivered frame, if any; invoked when the observer is removed.
+     */
+    void discard() {
+        Delivery discarded = pending.getAndSet(null);
+        if (discarded != null) {
+            framePool.release(discarded.frame);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                Delivery delivery = pending.getAndSet(null);
+
+                if (delivery == null) {
+                    scheduled.set(false);
+
+                    // A frame may have been posted after the mailbox was found empty, but before it was unscheduled
+                    if (pending.get() == null || !scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                } else {
+                    observer.onFrameRendered(segue, delivery.frame, delivery.damage);
+                }
+            }
+        } catch (RuntimeException e) {
+            scheduled.set(false);
+            throw e;
+        }
+    }
+
+    private static Shape union(Shape a, Shape b) {
+        if (a.getBounds().isEmpty()) {
+            return b;
+        } else if (b.getBounds().isEmpty()) {
+            return a;
+        } else if (a instanceof Rectangle && b instanceof Rectangle) {
+            return ((Rectangle) a).union((Rectangle) b);
+        }
+
+        Area union = new Area(a);
+        union.add(new Area(b));
+        return union;
+    }
+
+    private static class Delivery {
+        private final BufferedImage frame;
+        private final Shape damage;
+
+        Delivery(BufferedImage frame, Shape damage) {
+            this.frame = frame;
+            this.damage = damage;
+        }
+    }
+}
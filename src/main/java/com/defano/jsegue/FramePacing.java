@@ -0,0 +1,21 @@
+package com.defano.jsegue;
+
+/**
+ * Policies for pacing the frames of a running segue animation when frames take longer to render than the frame period
+ * allows.
+ */
+public enum FramePacing {
+
+    /**
+     * Frames are scheduled at a fixed rate. When a frame overruns its period, the ticks that were missed are executed
+     * back-to-back as soon as the overrunning frame completes, each rendering a frame. This is the default.
+     */
+    FIXED_RATE,
+
+    /**
+     * Frames are scheduled against a deadline on a fixed grid of frame periods. When a frame overruns its period, the
+     * ticks that were missed are coalesced and dropped, and the next frame is rendered at the next deadline for the
+     * progress at that time. Slow hosts thus produce fewer frames rather than bursts of stale ones.
+     */
+    DEADLINE
+}
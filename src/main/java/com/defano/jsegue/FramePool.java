@@ -0,0 +1,197 @@
+package com.defano.jsegue;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A small pool of recyclable frame buffers owned by a single segue.
+ * <p>
+ * Every frame handed out by the pool carries a lease count. A frame is returned to the pool (and becomes eligible for
+ * reuse) only when its lease count drops to zero; frames that are never released are simply garbage collected.
+ */
+class FramePool {
+
+    private final Deque<BufferedImage> available = new ArrayDeque<>();
+    private final Map<BufferedImage, Integer> leases = new WeakHashMap<>();
+    private final Map<BufferedImage, Object> contents = new WeakHashMap<>();
+    private int capacity;
+
+    /**
+     * Sets the maximum number of idle frames retained by this pool. Zero disables pooling.
+     *
+     * @param capacity The number of frame buffers to retain
+     */
+    synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+
+        while (available.size() > this.capacity) {
+            available.pop();
+        }
+    }
+
+    /**
+     * Gets the maximum number of idle frames retained by this pool.
+     *
+     * @return The pool capacity
+     */
+    synchronized int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Creates a new, fully transparent frame.
+     *
+     * @param width      The frame width
+     * @param height     The frame height
+     * @param colorModel The color model of the frame; must support translucency
+     * @param storage    Where the frame's pixels are stored (see {@link OffHeapImages}), or null to store them on the
+     *                   heap; off-heap frames are always premultiplied ARGB, whatever the color model
+     * @return A transparent frame
+     */
+    static BufferedImage createFrame(int width, int height, ColorModel colorModel, OffHeapImages.Storage storage) {
+        if (storage != null) {
+            return OffHeapImages.create(width, height, storage);
+        } else if (colorModel.equals(ColorModel.getRGBdefault())) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+
+        return new BufferedImage(colorModel, colorModel.createCompatibleWritableRaster(width, height),
+                colorModel.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * Acquires a fully transparent frame of the requested size and format, reusing an idle frame when one is
+     * available. The returned frame carries a single lease held by the caller.
+     *
+     * @param width      The frame width
+     * @param height     The frame height
+     * @param colorModel The color model of the frame; must support translucency
+     * @param storage    Where the frame's pixels are stored, or null to store them on the heap
+     * @return A transparent frame
+     */
+    BufferedImage acquire(int width, int height, ColorModel colorModel, OffHeapImages.Storage storage) {
+        return acquire(width, height, colorModel, storage, true);
+    }
+
+    /**
+     * Acquires a frame of the requested size and format, reusing an idle frame when one is available. The returned
+     * frame carries a single lease held by the caller.
+     *
+     * @param width      The frame width
+     * @param height     The frame height
+     * @param colorModel The color model of the frame; must support translucency
+     * @param storage    Where the frame's pixels are stored, or null to store them on the heap
+     * @param clear      When false, a reused frame keeps the pixels it held when it was released, and its content (see
+     *                   {@link #getContent(BufferedImage)}); otherwise, it is cleared
+     * @return A frame; transparent unless reused without clearing
+     */
+    BufferedImage acquire(int width, int height, ColorModel colorModel, OffHeapImages.Storage storage, boolean clear) {
+        BufferedImage frame = null;
+
+        synchronized (this) {
+            while (frame == null && !available.isEmpty()) {
+                BufferedImage candidate = available.pop();
+                if (candidate.getWidth() == width && candidate.getHeight() == height && candidate.getColorModel().equals(colorModel)
+                        && OffHeapImages.getStorage(candidate) == storage) {
+                    frame = candidate;
+                }
+            }
+        }
+
+        if (frame == null) {
+            frame = createFrame(width, height, colorModel, storage);
+        } else if (clear) {
+            clear(frame);
+        }
+
+        synchronized (this) {
+            leases.put(frame, 1);
+            if (clear) {
+                contents.remove(frame);
+            }
+        }
+
+        return frame;
+    }
+
+    /**
+     * Adds leases to a frame acquired from this pool; has no effect on frames not owned by the pool.
+     *
+     * @param frame The leased frame
+     * @param count The number of leases to add
+     */
+    synchronized void retain(BufferedImage frame, int count) {
+        Integer leaseCount = leases.get(frame);
+        if (leaseCount != null) {
+            leases.put(frame, leaseCount + count);
+        }
+    }
+
+    /**
+     * Releases one lease on a frame, returning it to the pool when no leases remain. Has no effect on frames not
+     * owned by the pool.
+     *
+     * @param frame The frame to release
+     */
+    synchronized void release(BufferedImage frame) {
+        Integer leaseCount = leases.get(frame);
+
+        if (leaseCount != null) {
+            if (leaseCount > 1) {
+                leases.put(frame, leaseCount - 1);
+            } else {
+                leases.remove(frame);
+                if (available.size() < capacity) {
+                    available.push(frame);
+                }
+            }
+        }
+    }
+
+    /**
+     * Permanently removes a frame from the pool's custody; the frame will never be recycled and any subsequent
+     * release is ignored.
+     *
+     * @param frame The frame to detach
+     */
+    synchronized void detach(BufferedImage frame) {
+        leases.remove(frame);
+        contents.remove(frame);
+    }
+
+    /**
+     * Gets a description of the pixels a frame acquired from this pool holds, as recorded by
+     * {@link #setContent(BufferedImage, Object)}; a frame reused without clearing retains its content.
+     *
+     * @param frame The frame
+     * @return The frame's content, or null if unknown.
+     */
+    synchronized Object getContent(BufferedImage frame) {
+        return contents.get(frame);
+    }
+
+    /**
+     * Records a description of the pixels a leased frame holds, so that whoever next reuses the frame without clearing
+     * it may update its pixels rather than redraw them; has no effect on frames not owned by the pool.
+     *
+     * @param frame   The leased frame
+     * @param content A description of the frame's pixels
+     */
+    synchronized void setContent(BufferedImage frame, Object content) {
+        if (leases.containsKey(frame)) {
+            contents.put(frame, content);
+        }
+    }
+
+    private void clear(BufferedImage frame) {
+        Graphics2D g = frame.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, frame.getWidth(), frame.getHeight());
+        g.dispose();
+    }
+}
@@ -0,0 +1,299 @@
+package com.defano.jsegue;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exports the animation sequence of one or more segues, played one after another, as an animated GIF.
+ * <p>
+ * Frames are rendered offline at the deterministic progress steps of each segue's animation sequence (see
+ * {@link AnimatedSegue#renderFrame(int)}), without regard to the wall clock. Frames are rendered and quantized to a
+ * palette (median-cut, up to 256 colors per frame) on a render executor, while a single thread (the caller's) encodes
+ * the quantized frames in order. Each segue renders its frames one at a time, in order (many effects keep state
+ * between frames, and would render one frame at a time anyway); a segue's render pool, if any, still renders the bands
+ * of each frame in parallel (see {@link AnimatedSegue#setRenderPool(ForkJoinPool)}). Quantization, which is by far the
+ * costlier step, runs in parallel across frames. At most {@link #withMaxFramesInFlight(int)} frames are rendered ahead
+ * of the encoder, so memory use is independent of the length of the animation.
+ * <p>
+ * GIF supports only fully opaque or fully transparent pixels; pixels less than half opaque are exported as
+ * transparent and all others as opaque. Each frame replaces the previous one entirely.
+ * <p>
+ * Exporters may be reused, but not by multiple threads at once. Frames are rendered on the render executor, so
+ * segues must not be modified (or animated) during export.
+ */
+@SuppressWarnings("unused")
+public class GifExporter {
+
+    private final List<AnimatedSegue> segues;
+    private Executor renderExecutor = ForkJoinPool.commonPool();
+    private int maxFramesInFlight = Runtime.getRuntime().availableProcessors() * 2;
+    private int loopCount = 0;
+
+    /**
+     * Creates an exporter of the given segues' animations, played in order.
+     *
+     * @param segues The segues to export
+     */
+    public GifExporter(AnimatedSegue... segues) {
+        this(Arrays.asList(segues));
+    }
+
+    /**
+     * Creates an exporter of the given segues' animations, played in order.
+     *
+     * @param segues The segues to export
+     */
+    public GifExporter(List<AnimatedSegue> segues) {
+        if (segues.isEmpty()) {
+            throw new IllegalArgumentException("Must specify at least one segue to export.");
+        }
+
+        this.segues = new ArrayList<>(segues);
+    }
+
+    /**
+     * Sets the executor on which frames are rendered and quantized; by default, the common fork-join pool.
+     *
+     * @param renderExecutor The render executor
+     * @return This exporter
+     */
+    public GifExporter withRenderExecutor(Executor renderExecutor) {
+        this.renderExecutor = renderExecutor;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of frames that may be rendered (or awaiting encoding) at once; by default, twice the
+     * number of available processors.
+     *
+     * @param maxFramesInFlight The maximum number of frames in flight; at least one
+     * @return This exporter
+     */
+    public GifExporter withMaxFramesInFlight(int maxFramesInFlight) {
+        this.maxFramesInFlight = Math.max(1, maxFramesInFlight);
+        return this;
+    }
+
+    /**
+     * Sets the number of times viewers should repeat the animation after playing it once.
+     *
+     * @param loopCount The number of repetitions; zero to repeat forever (the default), or -1 to play only once.
+     * @return This exporter
+     */
+    public GifExporter withLoopCount(int loopCount) {
+        this.loopCount = loopCount;
+        return this;
+    }
+
+    /**
+     * Gets the total number of frames in the exported animation.
+     *
+     * @return The number of frames.
+     */
+    public int getFrameCount() {
+        int frameCount = 0;
+        for (AnimatedSegue segue : segues) {
+            frameCount += segue.getFrameCount();
+        }
+
+        return frameCount;
+    }
+
+    /**
+     * Exports the animation to a channel; the channel is not closed.
+     *
+     * @param channel The channel to write to
+     * @throws IOException If the animation cannot be written
+     */
+    public void export(WritableByteChannel channel) throws IOException {
+        OutputStream out = Channels.newOutputStream(channel);
+        export(out);
+        out.flush();
+    }
+
+    /**
+     * Exports the animation to a stream; the stream is flushed, but not closed.
+     *
+     * @param out The stream to write to
+     * @throws IOException If the animation cannot be written
+     */
+    public void export(OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ImageOutputStream stream = new MemoryCacheImageOutputStream(out);
+        Deque<CompletableFuture<BufferedImage>> inFlight = new ArrayDeque<>();
+        Map<AnimatedSegue, CompletableFuture<?>> lastRendered = new IdentityHashMap<>();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        Iterator<Frame> frames = getFrames().iterator();
+
+        try {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+
+            for (int index = 0; frames.hasNext() || !inFlight.isEmpty(); index++) {
+
+                // Keep the render executor busy while the encoder works through the frames in order, rendering each
+                // segue's frames one after another but quantizing them concurrently
+                while (frames.hasNext() && inFlight.size() < maxFramesInFlight) {
+                    Frame frame = frames.next();
+                    CompletableFuture<?> previous = lastRendered.getOrDefault(frame.segue,
+                            CompletableFuture.completedFuture(null));
+                    CompletableFuture<BufferedImage> rendered = previous.thenApplyAsync(ignored -> frame.render(abandoned),
+                            renderExecutor);
+
+                    lastRendered.put(frame.segue, rendered);
+                    inFlight.add(rendered.thenApplyAsync(frame::quantize, renderExecutor));
+                }
+
+                BufferedImage image = await(inFlight.remove());
+                writeFrame(writer, image, getDelay(index), index == 0);
+
+                // Hand the encoded bytes to the caller rather than accumulating them in memory
+                stream.flush();
+            }
+
+            writer.endWriteSequence();
+            stream.flush();
+        } finally {
+            abandoned.set(true);
+            for (CompletableFuture<BufferedImage> pending : inFlight) {
+                pending.cancel(false);
+            }
+
+            writer.dispose();
+        }
+    }
+
+    private void writeFrame(ImageWriter writer, BufferedImage image, int delayCentiseconds, boolean first) throws IOException {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        IIOMetadata metadata = writer.getDefaultImageMetadata(new ImageTypeSpecifier(image), param);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+        int transparentPixel = ((IndexColorModel) image.getColorModel()).getTransparentPixel();
+
+        IIOMetadataNode control = getChild(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "restoreToBackgroundColor");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", transparentPixel < 0 ? "FALSE" : "TRUE");
+        control.setAttribute("delayTime", String.valueOf(delayCentiseconds));
+        control.setAttribute("transparentColorIndex", String.valueOf(Math.max(0, transparentPixel)));
+
+        if (first && loopCount >= 0) {
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[]{0x1, (byte) (loopCount & 0xff), (byte) ((loopCount >> 8) & 0xff)});
+            getChild(root, "ApplicationExtensions").appendChild(loop);
+        }
+
+        try {
+            metadata.setFromTree(format, root);
+        } catch (IIOInvalidTreeException e) {
+            throw new IOException("Failed to create GIF frame metadata.", e);
+        }
+
+        writer.writeToSequence(new IIOImage(image, null, metadata), param);
+    }
+
+    private int getDelay(int index) {
+        for (AnimatedSegue segue : segues) {
+            if (index < segue.getFrameCount()) {
+                int intervalMs = segue.getDurationMs() / (segue.getFrameCount() - 1);
+                return Math.max(1, Math.round(intervalMs / 10f));
+            }
+
+            index -= segue.getFrameCount();
+        }
+
+        throw new IndexOutOfBoundsException("No such frame: " + index);
+    }
+
+    private List<Frame> getFrames() {
+        List<Frame> frames = new ArrayList<>();
+        for (AnimatedSegue segue : segues) {
+            for (int frame = 0; frame < segue.getFrameCount(); frame++) {
+                frames.add(new Frame(segue, frame));
+            }
+        }
+
+        return frames;
+    }
+
+    private static BufferedImage await(CompletableFuture<BufferedImage> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while exporting animation.", e);
+        } catch (ExecutionException | CancellationException e) {
+            throw new IOException("Failed to render animation frame.", e.getCause() == null ? e : e.getCause());
+        }
+    }
+
+    private static IIOMetadataNode getChild(IIOMetadataNode root, String name) {
+        for (int i = 0; i < root.getLength(); i++) {
+            if (root.item(i).getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) root.item(i);
+            }
+        }
+
+        IIOMetadataNode child = new IIOMetadataNode(name);
+        root.appendChild(child);
+        return child;
+    }
+
+    /**
+     * A frame of one of the exported segues.
+     */
+    private static class Frame {
+        private final AnimatedSegue segue;
+        private final int index;
+
+        Frame(AnimatedSegue segue, int index) {
+            this.segue = segue;
+            this.index = index;
+        }
+
+        BufferedImage render(AtomicBoolean abandoned) {
+            if (abandoned.get()) {
+                throw new CancellationException();
+            }
+
+            return segue.renderFrame(index);
+        }
+
+        BufferedImage quantize(BufferedImage frame) {
+            BufferedImage quantized = MedianCutQuantizer.quantize(frame);
+            segue.releaseFrame(frame);
+
+            return quantized;
+        }
+    }
+}
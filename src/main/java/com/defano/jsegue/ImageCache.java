@@ -0,0 +1,356 @@
+package com.defano.jsegue;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A memory-bounded cache of the images that {@link SegueBuilder} prepares from its inputs, shared by any number of
+ * builders, so that building many segues from the same inputs prepares each image only once.
+ * <p>
+ * A builder using a cache (see {@link SegueBuilder#withImageCache(ImageCache)}) caches the images it rasterizes from
+ * paints (keyed by the paint, size and image format), and the images it enlarges or converts from other images (keyed
+ * by the identity of the image, size and image format). Prepared images with identical pixels are shared: a prepared
+ * image whose pixels match those of an image already cached is discarded in favor of the cached image, and occupies
+ * no further space. When the total size of the cached images exceeds the cache's byte budget, the least recently used
+ * images are evicted.
+ * <p>
+ * Paints are compared with {@link Object#equals(Object)}, so a {@link Color} matches any equal color, but most other
+ * paints match only themselves. Images are referenced weakly; images prepared from an image that has been garbage
+ * collected can never be hit again, and are discarded the next time an image is cached.
+ * <p>
+ * Cached images are shared by every segue built from the same inputs, and segues never modify their source or
+ * destination images; neither should observers or other code that obtains them. Because segues built from the same
+ * inputs share the same images, a {@link FrameCache} with {@link FrameCache.ImageKeying#IDENTITY} keying hits across
+ * them.
+ */
+public class ImageCache {
+
+    /**
+     * The ways in which a builder prepares an image from an input.
+     */
+    enum Preparation {
+
+        /**
+         * A paint is rasterized to an image of a given size.
+         */
+        PAINT,
+
+        /**
+         * An image is drawn onto a larger, transparent image.
+         */
+        ENLARGE,
+
+        /**
+         * An image is converted to another format.
+         */
+        CONVERT
+    }
+
+    private final Map<Key, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<BufferedImage, Integer> references = new IdentityHashMap<>();
+    private final Map<Content, BufferedImage> contents = new HashMap<>();
+    private final long maxBytes;
+    private long sizeBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long sharedCount;
+
+    /**
+     * Creates an image cache.
+     *
+     * @param maxBytes The maximum total size of the cached images, in bytes.
+     */
+    public ImageCache(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Gets the maximum total size of the images this cache retains.
+     *
+     * @return The byte budget.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Gets the total size of the images presently cached; images shared by several inputs are counted once.
+     *
+     * @return The number of bytes cached.
+     */
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    /**
+     * Gets the number of distinct images presently cached.
+     *
+     * @return The number of images.
+     */
+    public synchronized int getImageCount() {
+        return references.size();
+    }
+
+    /**
+     * Gets the number of prepared images that were delivered from the cache.
+     *
+     * @return The hit count.
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of images that had to be prepared because they were not cached.
+     *
+     * @return The miss count.
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of images evicted from the cache to remain within its byte budget.
+     *
+     * @return The eviction count.
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Gets the number of prepared images that were discarded in favor of a cached image with identical pixels.
+     *
+     * @return The shared count.
+     */
+    public synchronized long getSharedCount() {
+        return sharedCount;
+    }
+
+    /**
+     * Removes every image from the cache; hit, miss, eviction and shared counts are unaffected.
+     */
+    public synchronized void clear() {
+        images.clear();
+        references.clear();
+        contents.clear();
+        sizeBytes = 0;
+    }
+
+    /**
+     * Creates the key identifying an image prepared from a paint.
+     *
+     * @param paint  The paint
+     * @param width  The width of the prepared image
+     * @param height The height of the prepared image
+     * @param format Identifies the format of the prepared image; equal formats produce images of the same type
+     * @return The image's key.
+     */
+    static Key getKey(Paint paint, int width, int height, Object format) {
+        return new Key(Preparation.PAINT, paint, width, height, format);
+    }
+
+    /**
+     * Creates the key identifying an image prepared from another image.
+     *
+     * @param preparation How the image is prepared
+     * @param image       The image from which it is prepared
+     * @param width       The width of the prepared image
+     * @param height      The height of the prepared image
+     * @param format      Identifies the format of the prepared image; equal formats produce images of the same type
+     * @return The image's key.
+     */
+    static Key getKey(Preparation preparation, BufferedImage image, int width, int height, Object format) {
+        return new Key(preparation, new FrameCache.ImageIdentity(image), width, height, format);
+    }
+
+    /**
+     * Gets a cached image, counting the lookup as a hit or a miss.
+     *
+     * @param key The image's key
+     * @return The cached image, or null if the image is not cached.
+     */
+    synchronized BufferedImage get(Key key) {
+        BufferedImage image = images.get(key);
+
+        if (image == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+
+        return image;
+    }
+
+    /**
+     * Adds a prepared image to the cache, evicting the least recently used images as required to remain within
+     * budget. When an image with identical pixels (and format) is already cached, that image is cached under the key
+     * instead, and returned in place of the given image. Images larger than the entire budget are not cached.
+     *
+     * @param key   The image's key
+     * @param image The prepared image
+     * @return The image to use: the given image, or the cached image with identical pixels.
+     */
+    BufferedImage put(Key key, BufferedImage image) {
+        long imageBytes = FrameCache.getSizeBytes(image);
+        if (imageBytes > maxBytes) {
+            return image;
+        }
+
+        // Hash pixels outside the lock; comparing them to a match is rare, and cheap next to preparing the image
+        Content content = new Content(FrameCache.getContentHash(image), image.getWidth(), image.getHeight(), key.format);
+
+        synchronized (this) {
+            BufferedImage cached = contents.get(content);
+            if (cached != null && hasSamePixels(cached, image)) {
+                image = cached;
+                sharedCount++;
+            } else if (cached == null) {
+                contents.put(content, image);
+            }
+
+            retain(image);
+            BufferedImage replaced = images.put(key, image);
+            if (replaced != null) {
+                release(replaced);
+            }
+
+            Iterator<Map.Entry<Key, BufferedImage>> eldest = images.entrySet().iterator();
+            while (eldest.hasNext()) {
+                Map.Entry<Key, BufferedImage> entry = eldest.next();
+                boolean unreachable = entry.getKey().input instanceof FrameCache.ImageIdentity &&
+                        ((FrameCache.ImageIdentity) entry.getKey().input).isCleared();
+
+                if (unreachable || sizeBytes > maxBytes && entry.getValue() != image) {
+                    eldest.remove();
+                    release(entry.getValue());
+                    if (!unreachable) {
+                        evictionCount++;
+                    }
+                }
+            }
+
+            return image;
+        }
+    }
+
+    private void retain(BufferedImage image) {
+        Integer count = references.get(image);
+        if (count == null) {
+            sizeBytes += FrameCache.getSizeBytes(image);
+        }
+
+        references.put(image, count == null ? 1 : count + 1);
+    }
+
+    private void release(BufferedImage image) {
+        int count = references.get(image) - 1;
+
+        if (count > 0) {
+            references.put(image, count);
+        } else {
+            references.remove(image);
+            contents.values().remove(image);
+            sizeBytes -= FrameCache.getSizeBytes(image);
+        }
+    }
+
+    private static boolean hasSamePixels(BufferedImage a, BufferedImage b) {
+        if (a == b) {
+            return true;
+        }
+
+        Raster aRaster = a.getRaster();
+        Raster bRaster = b.getRaster();
+        int[] aRow = null;
+        int[] bRow = null;
+
+        for (int y = 0; y < a.getHeight(); y++) {
+            aRow = aRaster.getPixels(0, y, a.getWidth(), 1, aRow);
+            bRow = bRaster.getPixels(0, y, b.getWidth(), 1, bRow);
+            if (!Arrays.equals(aRow, bRow)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The identity of a cached image: the input from which it was prepared, and how.
+     */
+    static class Key {
+        private final Preparation preparation;
+        private final Object input;
+        private final int width;
+        private final int height;
+        private final Object format;
+
+        private Key(Preparation preparation, Object input, int width, int height, Object format) {
+            this.preparation = preparation;
+            this.input = input;
+            this.width = width;
+            this.height = height;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return width == key.width &&
+                    height == key.height &&
+                    preparation == key.preparation &&
+                    input.equals(key.input) &&
+                    format.equals(key.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(preparation, input, width, height, format);
+        }
+    }
+
+    /**
+     * The content of a cached image, by which images with identical pixels are found.
+     */
+    private static class Content {
+        private final long hash;
+        private final int width;
+        private final int height;
+        private final Object format;
+
+        Content(long hash, int width, int height, Object format) {
+            this.hash = hash;
+            this.width = width;
+            this.height = height;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Content content = (Content) o;
+            return hash == content.hash &&
+                    width == content.width &&
+                    height == content.height &&
+                    format.equals(content.format);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hash, width, height, format);
+        }
+    }
+}
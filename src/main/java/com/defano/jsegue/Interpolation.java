@@ -0,0 +1,57 @@
+package com.defano.jsegue;
+
+import java.awt.*;
+
+/**
+ * Policies for sampling images that segues draw scaled (for example, the stretch and shrink effects), trading
+ * rendering speed against the smoothness of the scaled image.
+ */
+public enum Interpolation {
+
+    /**
+     * Each pixel takes the color of the nearest image pixel. Fastest, but scaled images appear blocky (when enlarged)
+     * or lose detail (when reduced). This is the default.
+     */
+    NEAREST_NEIGHBOR(RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR),
+
+    /**
+     * Each pixel blends the four nearest image pixels. Smooth, at modest cost.
+     */
+    BILINEAR(RenderingHints.VALUE_INTERPOLATION_BILINEAR),
+
+    /**
+     * Each pixel blends the sixteen nearest image pixels. Smoothest and sharpest, but slowest.
+     */
+    BICUBIC(RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+
+    private final Object renderingHint;
+
+    Interpolation(Object renderingHint) {
+        this.renderingHint = renderingHint;
+    }
+
+    /**
+     * Gets the value of the {@link RenderingHints#KEY_INTERPOLATION} rendering hint that selects this policy.
+     *
+     * @return The rendering hint value.
+     */
+    public Object getRenderingHint() {
+        return renderingHint;
+    }
+
+    /**
+     * Gets the policy selected by a value of the {@link RenderingHints#KEY_INTERPOLATION} rendering hint.
+     *
+     * @param renderingHint The rendering hint value
+     * @return The interpolation policy, or null if the value selects none.
+     */
+    static Interpolation forRenderingHint(Object renderingHint) {
+        for (Interpolation interpolation : values()) {
+            if (interpolation.renderingHint.equals(renderingHint)) {
+                return interpolation;
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,185 @@
+package com.defano.jsegue;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of latencies with exponentially sized buckets: bucket 0 counts latencies under 2 microseconds and each
+ * bucket thereafter spans twice the range of its predecessor (bucket i counts latencies from 2^i up to, but not
+ * including, 2^(i+1) microseconds). The last bucket counts every latency too large for the others.
+ * <p>
+ * Histograms are safe for use by multiple threads.
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of buckets in every histogram; the last bucket counts latencies of about 17 seconds and more.
+     */
+    public static final int BUCKET_COUNT = 25;
+
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count;
+    private long totalNanos;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos;
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency, in nanoseconds; negative values are treated as zero.
+     */
+    public synchronized void record(long nanos) {
+        nanos = Math.max(0, nanos);
+
+        buckets[getBucket(nanos)]++;
+        count++;
+        totalNanos += nanos;
+        minNanos = Math.min(minNanos, nanos);
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Adds every latency recorded by another histogram to this one.
+     *
+     * @param other The histogram whose latencies should be added.
+     */
+    public void add(LatencyHistogram other) {
+        LatencyHistogram snapshot = other.copy();
+
+        synchronized (this) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets[i] += snapshot.buckets[i];
+            }
+
+            count += snapshot.count;
+            totalNanos += snapshot.totalNanos;
+            minNanos = Math.min(minNanos, snapshot.minNanos);
+            maxNanos = Math.max(maxNanos, snapshot.maxNanos);
+        }
+    }
+
+    /**
+     * Discards every latency recorded.
+     */
+    public synchronized void reset() {
+        Arrays.fill(buckets, 0);
+        count = 0;
+        totalNanos = 0;
+        minNanos = Long.MAX_VALUE;
+        maxNanos = 0;
+    }
+
+    /**
+     * Makes a copy of this histogram.
+     *
+     * @return A new histogram having recorded the same latencies as this one.
+     */
+    public synchronized LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        System.arraycopy(buckets, 0, copy.buckets, 0, BUCKET_COUNT);
+        copy.count = count;
+        copy.totalNanos = totalNanos;
+        copy.minNanos = minNanos;
+        copy.maxNanos = maxNanos;
+
+        return copy;
+    }
+
+    /**
+     * Gets the number of latencies recorded.
+     *
+     * @return The number of latencies.
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of latencies recorded in the given bucket.
+     *
+     * @param bucket The bucket, between 0 and {@link #BUCKET_COUNT} - 1 (inclusive)
+     * @return The number of latencies in the bucket.
+     */
+    public synchronized long getBucketCount(int bucket) {
+        return buckets[bucket];
+    }
+
+    /**
+     * Gets the smallest latency in a bucket.
+     *
+     * @param bucket The bucket, between 0 and {@link #BUCKET_COUNT} - 1 (inclusive)
+     * @return The smallest latency counted by the bucket, in nanoseconds.
+     */
+    public static long getBucketLowerBoundNanos(int bucket) {
+        return bucket == 0 ? 0 : (1L << bucket) * 1000L;
+    }
+
+    /**
+     * Gets the smallest latency recorded.
+     *
+     * @return The smallest latency, in nanoseconds; zero if no latencies have been recorded.
+     */
+    public synchronized long getMinNanos() {
+        return count == 0 ? 0 : minNanos;
+    }
+
+    /**
+     * Gets the largest latency recorded.
+     *
+     * @return The largest latency, in nanoseconds; zero if no latencies have been recorded.
+     */
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Gets the mean of the latencies recorded.
+     *
+     * @return The mean latency, in nanoseconds; zero if no latencies have been recorded.
+     */
+    public synchronized long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Estimates the latency at or below which the given percentage of latencies fall. The estimate is the upper bound
+     * of the bucket holding the percentile, but never more than the largest latency recorded.
+     *
+     * @param percentile The percentile, between 0.0 and 100.0 (inclusive)
+     * @return The estimated latency at the percentile, in nanoseconds; zero if no latencies have been recorded.
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT - 1; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.max(minNanos, Math.min(maxNanos, getBucketLowerBoundNanos(i + 1)));
+            }
+        }
+
+        return maxNanos;
+    }
+
+    private static int getBucket(long nanos) {
+        long micros = nanos / 1000L;
+        int bucket = micros < 2 ? 0 : 63 - Long.numberOfLeadingZeros(micros);
+
+        return Math.min(BUCKET_COUNT - 1, bucket);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "LatencyHistogram{" +
+                "count=" + count +
+                ", minNanos=" + getMinNanos() +
+                ", meanNanos=" + getMeanNanos() +
+                ", p99Nanos=" + getPercentileNanos(99.0) +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+}
@@ -0,0 +1,28 @@
+package com.defano.jsegue;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A virtual clock, starting at time zero, that advances only when told to. Segues using a manual clock render frames
+ * only as the clock is advanced, making their timing fully deterministic; useful for testing and for rendering
+ * animations faster (or slower) than real time.
+ */
+public class ManualClock extends ExternalClock {
+
+    /**
+     * Creates a manual clock at time zero.
+     */
+    public ManualClock() {
+        super(0);
+    }
+
+    /**
+     * Advances the clock, rendering (on the calling thread) any frames due at the new time.
+     *
+     * @param duration The amount of time to advance the clock by; negative values are treated as zero.
+     * @param unit     The unit of duration
+     */
+    public synchronized void advance(long duration, TimeUnit unit) {
+        tick(nanoTime() + Math.max(0, unit.toNanos(duration)));
+    }
+}
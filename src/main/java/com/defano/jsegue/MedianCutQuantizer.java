@@ -0,0 +1,224 @@
+package com.defano.jsegue;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reduces a translucent image to an indexed image of at most 256 colors using median-cut quantization. Colors are
+ * first binned at five bits per channel; the bins are then repeatedly split at the median of their widest channel
+ * until the palette is full. Pixels less than half opaque are mapped to a transparent palette entry; all other pixels
+ * are treated as opaque.
+ * <p>
+ * Quantizers are stateless and may be used by multiple threads at once.
+ */
+final class MedianCutQuantizer {
+
+    private static final int BINS = 1 << 15;
+
+    private MedianCutQuantizer() {
+    }
+
+    /**
+     * Quantizes an image.
+     *
+     * @param image The image to quantize
+     * @return An indexed image whose color model marks its transparent entry, if any (see
+     * {@link IndexColorModel#getTransparentPixel()}).
+     */
+    static BufferedImage quantize(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        int[] counts = new int[BINS];
+        long[] sums = new long[BINS * 3];
+        boolean translucent = false;
+
+        for (int pixel : pixels) {
+            if (pixel >>> 24 < 0x80) {
+                translucent = true;
+            } else {
+                int bin = getBin(pixel);
+                counts[bin]++;
+                sums[bin * 3] += (pixel >> 16) & 0xff;
+                sums[bin * 3 + 1] += (pixel >> 8) & 0xff;
+                sums[bin * 3 + 2] += pixel & 0xff;
+            }
+        }
+
+        // Reserve palette entry zero for transparent pixels
+        int firstColor = translucent ? 1 : 0;
+        List<Box> boxes = split(counts, 256 - firstColor);
+
+        int paletteSize = Math.max(2, Integer.highestOneBit(Math.max(1, firstColor + boxes.size() - 1)) << 1);
+        byte[] reds = new byte[paletteSize];
+        byte[] greens = new byte[paletteSize];
+        byte[] blues = new byte[paletteSize];
+        byte[] binIndex = new byte[BINS];
+
+        for (int index = 0; index < boxes.size(); index++) {
+            Box box = boxes.get(index);
+            long red = 0, green = 0, blue = 0, population = 0;
+
+            for (int i = box.start; i < box.end; i++) {
+                int bin = box.bins[i];
+                binIndex[bin] = (byte) (firstColor + index);
+                red += sums[bin * 3];
+                green += sums[bin * 3 + 1];
+                blue += sums[bin * 3 + 2];
+                population += counts[bin];
+            }
+
+            reds[firstColor + index] = (byte) ((red + population / 2) / population);
+            greens[firstColor + index] = (byte) ((green + population / 2) / population);
+            blues[firstColor + index] = (byte) ((blue + population / 2) / population);
+        }
+
+        IndexColorModel colorModel = new IndexColorModel(8, paletteSize, reds, greens, blues, translucent ? 0 : -1);
+        BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+        byte[] indices = ((DataBufferByte) indexed.getRaster().getDataBuffer()).getData();
+
+        for (int i = 0; i < pixels.length; i++) {
+            indices[i] = pixels[i] >>> 24 < 0x80 ? 0 : binIndex[getBin(pixels[i])];
+        }
+
+        return indexed;
+    }
+
+    private static List<Box> split(int[] counts, int maxColors) {
+        int binCount = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                binCount++;
+            }
+        }
+
+        int[] bins = new int[binCount];
+        for (int bin = 0, i = 0; bin < BINS; bin++) {
+            if (counts[bin] > 0) {
+                bins[i++] = bin;
+            }
+        }
+
+        List<Box> boxes = new ArrayList<>();
+        if (binCount > 0) {
+            boxes.add(new Box(bins, 0, binCount, counts));
+        }
+
+        while (boxes.size() < maxColors) {
+
+            // Split the box spanning the widest range of any one channel, favoring the more populous on a tie
+            Box widest = null;
+            for (Box box : boxes) {
+                if (box.end - box.start > 1 && (widest == null || box.getRange() > widest.getRange() ||
+                        box.getRange() == widest.getRange() && box.population > widest.population)) {
+                    widest = box;
+                }
+            }
+
+            if (widest == null) {
+                break;
+            }
+
+            boxes.add(widest.split(counts));
+        }
+
+        return boxes;
+    }
+
+    private static int getBin(int pixel) {
+        return ((pixel >> 9) & 0x7c00) | ((pixel >> 6) & 0x03e0) | ((pixel >> 3) & 0x001f);
+    }
+
+    /**
+     * A range of color bins; bins [start, end) of the shared bins array belong to the box.
+     */
+    private static class Box {
+        private final int[] bins;
+        private final int start;
+        private int end;
+        private int population;
+        private final int[] min = new int[3];
+        private final int[] max = new int[3];
+
+        Box(int[] bins, int start, int end, int[] counts) {
+            this.bins = bins;
+            this.start = start;
+            this.end = end;
+            shrink(counts);
+        }
+
+        int getRange() {
+            return Math.max(max[0] - min[0], Math.max(max[1] - min[1], max[2] - min[2]));
+        }
+
+        /**
+         * Splits this box at the population median of its widest channel, retaining the lower half.
+         *
+         * @param counts The population of each bin
+         * @return The upper half.
+         */
+        Box split(int[] counts) {
+            int channel = 0;
+            for (int c = 1; c < 3; c++) {
+                if (max[c] - min[c] > max[channel] - min[channel]) {
+                    channel = c;
+                }
+            }
+
+            int shift = 10 - channel * 5;
+            sort(shift);
+
+            int median = start + 1;
+            for (int seen = counts[bins[start]]; median < end - 1 && seen + counts[bins[median]] <= population / 2; median++) {
+                seen += counts[bins[median]];
+            }
+
+            Box upper = new Box(bins, median, end, counts);
+            end = median;
+            shrink(counts);
+
+            return upper;
+        }
+
+        private void sort(int shift) {
+
+            // Counting sort of the box's bins by one five-bit channel
+            int[] offsets = new int[33];
+            for (int i = start; i < end; i++) {
+                offsets[((bins[i] >> shift) & 0x1f) + 1]++;
+            }
+
+            for (int v = 1; v < offsets.length; v++) {
+                offsets[v] += offsets[v - 1];
+            }
+
+            int[] sorted = new int[end - start];
+            for (int i = start; i < end; i++) {
+                sorted[offsets[(bins[i] >> shift) & 0x1f]++] = bins[i];
+            }
+
+            System.arraycopy(sorted, 0, bins, start, sorted.length);
+        }
+
+        private void shrink(int[] counts) {
+            population = 0;
+            for (int c = 0; c < 3; c++) {
+                min[c] = 0x1f;
+                max[c] = 0;
+            }
+
+            for (int i = start; i < end; i++) {
+                population += counts[bins[i]];
+                for (int c = 0; c < 3; c++) {
+                    int value = (bins[i] >> (10 - c * 5)) & 0x1f;
+                    min[c] = Math.min(min[c], value);
+                    max[c] = Math.max(max[c], value);
+                }
+            }
+        }
+    }
+}
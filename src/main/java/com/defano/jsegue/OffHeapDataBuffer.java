@@ -0,0 +1,90 @@
+package com.defano.jsegue;
+
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A single-bank, integer {@link DataBuffer} whose elements are stored outside of the Java heap, in fixed-size blocks
+ * of direct memory or of a memory-mapped scratch file (see {@link OffHeapImages}). Elements are initially zero.
+ */
+class OffHeapDataBuffer extends DataBuffer {
+
+    private static final int BLOCK_SHIFT = 20;
+    private static final int BLOCK_MASK = (1 << BLOCK_SHIFT) - 1;
+
+    private final OffHeapImages.Storage storage;
+    private final IntBuffer[] blocks;
+
+    /**
+     * @param size    The number of elements in the buffer
+     * @param storage Where the elements are stored
+     */
+    OffHeapDataBuffer(int size, OffHeapImages.Storage storage) {
+        super(TYPE_INT, size);
+        this.storage = storage;
+        this.blocks = new IntBuffer[(int) (((long) size + BLOCK_MASK) >>> BLOCK_SHIFT)];
+
+        if (storage == OffHeapImages.Storage.MAPPED) {
+            mapBlocks(size);
+        } else {
+            for (int index = 0; index < blocks.length; index++) {
+                blocks[index] = ByteBuffer.allocateDirect(getBlockSize(size, index) * 4)
+                        .order(ByteOrder.nativeOrder())
+                        .asIntBuffer();
+            }
+        }
+    }
+
+    OffHeapImages.Storage getStorage() {
+        return storage;
+    }
+
+    @Override
+    public int getElem(int bank, int i) {
+        return blocks[i >>> BLOCK_SHIFT].get(i & BLOCK_MASK);
+    }
+
+    @Override
+    public void setElem(int bank, int i, int val) {
+        blocks[i >>> BLOCK_SHIFT].put(i & BLOCK_MASK, val);
+    }
+
+    /**
+     * Maps the blocks onto a new scratch file, deleted as soon as it's mapped (or, on platforms that don't permit
+     * deleting mapped files, when the virtual machine exits). The mappings remain valid after the file is closed.
+     */
+    private void mapBlocks(int size) {
+        try {
+            File file = File.createTempFile("jsegue", ".pixels");
+
+            try (RandomAccessFile scratch = new RandomAccessFile(file, "rw")) {
+                scratch.setLength((long) size * 4);
+
+                FileChannel channel = scratch.getChannel();
+                for (int index = 0; index < blocks.length; index++) {
+                    long position = ((long) index << BLOCK_SHIFT) * 4;
+                    blocks[index] = channel.map(FileChannel.MapMode.READ_WRITE, position, getBlockSize(size, index) * 4L)
+                            .order(ByteOrder.nativeOrder())
+                            .asIntBuffer();
+                }
+            } finally {
+                if (!file.delete()) {
+                    file.deleteOnExit();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to map image scratch file.", e);
+        }
+    }
+
+    private static int getBlockSize(int size, int index) {
+        return Math.min(BLOCK_MASK + 1, size - (index << BLOCK_SHIFT));
+    }
+}
@@ -0,0 +1,127 @@
+package com.defano.jsegue;
+
+import java.awt.*;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.util.function.Consumer;
+
+/**
+ * Factories of images whose pixels are stored outside of the Java heap, for animating images too large to hold on
+ * the heap (a 16384x16384 image occupies a gigabyte).
+ * <p>
+ * Off-heap images are ordinary {@link BufferedImage}s (of {@code TYPE_CUSTOM}, with premultiplied ARGB pixels) that
+ * Java2D draws with its general-purpose loops, several times more slowly than heap images. Segues that animate
+ * off-heap images render frames in the same storage, drawing them in tiles of bounded size so that rendering never
+ * requires a full-size image on the heap; see {@link SegueBuilder#withOffHeapImages(Storage)} and
+ * {@link AnimatedSegue#renderViewport(float, Rectangle, BufferedImage)}, which renders just the portion of a frame
+ * that is visible. The exceptions are effects that dissolve images pixel-by-pixel ({@code PixelDissolveEffect} and
+ * {@code LumaWipeEffect}), which keep heap copies of both images.
+ */
+public final class OffHeapImages {
+
+    /**
+     * The largest number of pixels of an off-heap image that segues draw into, or scale from, at once; thus the
+     * largest heap image that Java2D requires to draw them.
+     */
+    public static final int TILE_PIXELS = 1 << 20;
+
+    private static final DirectColorModel COLOR_MODEL = new DirectColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB),
+            32, 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000, true, DataBuffer.TYPE_INT);
+
+    /**
+     * Where the pixels of off-heap images are stored.
+     */
+    public enum Storage {
+
+        /**
+         * Pixels are stored in direct memory (see {@link java.nio.ByteBuffer#allocateDirect(int)}), which counts
+         * against the virtual machine's direct memory limit ({@code -XX:MaxDirectMemorySize}) rather than its heap.
+         * The memory is freed when the image is garbage collected.
+         */
+        DIRECT,
+
+        /**
+         * Pixels are stored in a scratch file in the default temporary-file directory, mapped into memory; the
+         * operating system pages pixels in and out as they're drawn, so images may exceed the memory available to
+         * the process. The file is deleted as soon as it's mapped (or, where mapped files cannot be deleted, when the
+         * virtual machine exits).
+         */
+        MAPPED
+    }
+
+    private OffHeapImages() {
+    }
+
+    /**
+     * Creates a fully transparent off-heap image.
+     *
+     * @param width   The width of the image
+     * @param height  The height of the image
+     * @param storage Where the image's pixels are stored
+     * @return The image
+     * @throws IllegalArgumentException If the image has more than {@link Integer#MAX_VALUE} pixels
+     * @throws java.io.UncheckedIOException If the scratch file of a mapped image cannot be created
+     */
+    public static BufferedImage create(int width, int height, Storage storage) {
+        if ((long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Image of " + width + "x" + height + " pixels is too large.");
+        }
+
+        WritableRaster raster = Raster.createWritableRaster(COLOR_MODEL.createCompatibleSampleModel(width, height),
+                new OffHeapDataBuffer(width * height, storage), null);
+
+        return new BufferedImage(COLOR_MODEL, raster, true, null);
+    }
+
+    /**
+     * Creates an off-heap copy of an image, copying it a tile at a time.
+     *
+     * @param image   The image to copy
+     * @param storage Where the copy's pixels are stored
+     * @return The copy
+     */
+    public static BufferedImage copyOf(BufferedImage image, Storage storage) {
+        BufferedImage copy = create(image.getWidth(), image.getHeight(), storage);
+
+        forEachTile(new Rectangle(0, 0, image.getWidth(), image.getHeight()), tile -> {
+            Graphics2D g = copy.createGraphics();
+            g.clip(tile);
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        });
+
+        return copy;
+    }
+
+    /**
+     * Determines where an image's pixels are stored.
+     *
+     * @param image The image
+     * @return The storage of an off-heap image (see {@link #create(int, int, Storage)}), or null if the image's
+     * pixels are stored on the heap.
+     */
+    public static Storage getStorage(BufferedImage image) {
+        DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+        return dataBuffer instanceof OffHeapDataBuffer ? ((OffHeapDataBuffer) dataBuffer).getStorage() : null;
+    }
+
+    /**
+     * Divides a region of an image into horizontal tiles of at most {@link #TILE_PIXELS} pixels (but at least one
+     * row) each, from top to bottom.
+     *
+     * @param region The region to divide
+     * @param action Invoked with each tile
+     */
+    static void forEachTile(Rectangle region, Consumer<Rectangle> action) {
+        int tileHeight = Math.max(1, TILE_PIXELS / Math.max(1, region.width));
+
+        for (int y = region.y; y < region.y + region.height; y += tileHeight) {
+            action.accept(new Rectangle(region.x, y, region.width, Math.min(tileHeight, region.y + region.height - y)));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.defano.jsegue;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * An image filled with a paint that varies only horizontally (a solid color, or a horizontal gradient), as created by
+ * {@link SegueBuilder} for a paint source or destination (see {@link SegueBuilder#withSource(Paint)}).
+ * <p>
+ * Every row of the image is identical, so the image stores a single row of pixels that each of its rows shares; it
+ * occupies no more memory than one row of an ordinary image, and drawing it reads the same (cached) row over and
+ * over. Where a frame is clipped to a rectangle, effects fill the regions in which a solid-color image appears rather
+ * than drawing it (see {@link #getColor()}), which requires no reading at all. Painted images cannot be modified;
+ * pixels written to any row appear in every row.
+ */
+public final class PaintedImage extends BufferedImage {
+
+    private final Paint paint;
+    private final Color color;
+
+    private PaintedImage(DirectColorModel colorModel, WritableRaster raster, Paint paint, Color color) {
+        super(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+        this.paint = paint;
+        this.color = color;
+    }
+
+    /**
+     * Creates a painted image whose rows each repeat a row of pixels.
+     *
+     * @param row    An image one pixel high, filled with the paint; its pixels are shared, not copied
+     * @param height The height of the painted image
+     * @param paint  The paint with which the row was filled
+     * @return The painted image, or null if the row's pixels are not stored as packed integers (and so cannot be
+     * shared between rows).
+     */
+    static PaintedImage create(BufferedImage row, int height, Paint paint) {
+        if (!(row.getColorModel() instanceof DirectColorModel) ||
+                !(row.getSampleModel() instanceof SinglePixelPackedSampleModel) ||
+                !(row.getRaster().getDataBuffer() instanceof DataBufferInt)) {
+            return null;
+        }
+
+        DirectColorModel colorModel = (DirectColorModel) row.getColorModel();
+        WritableRaster raster = Raster.createPackedRaster((DataBufferInt) row.getRaster().getDataBuffer(),
+                row.getWidth(), height, 0, colorModel.getMasks(), null);
+
+        return new PaintedImage(colorModel, raster, paint, paint instanceof Color ? new Color(row.getRGB(0, 0), true) : null);
+    }
+
+    /**
+     * Determines whether a paint varies only horizontally, and so can be stored in a painted image.
+     *
+     * @param paint The paint
+     * @return True if every row filled with the paint is identical.
+     */
+    static boolean isHorizontal(Paint paint) {
+        if (paint instanceof Color) {
+            return true;
+        } else if (paint instanceof GradientPaint) {
+            GradientPaint gradient = (GradientPaint) paint;
+            return gradient.getPoint1().getY() == gradient.getPoint2().getY();
+        } else if (paint instanceof LinearGradientPaint) {
+            LinearGradientPaint gradient = (LinearGradientPaint) paint;
+            AffineTransform transform = gradient.getTransform();
+            return gradient.getStartPoint().getY() == gradient.getEndPoint().getY() &&
+                    transform.getShearX() == 0 && transform.getShearY() == 0;
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the paint with which this image was filled.
+     *
+     * @return The paint.
+     */
+    public Paint getPaint() {
+        return paint;
+    }
+
+    /**
+     * Gets the color of every pixel of this image, if the image was filled with a solid color. The color is that of
+     * the image's pixels (for example, opaque if the image's format has no alpha), which may differ from the color it
+     * was filled with.
+     *
+     * @return The color of the image's pixels, or null if the image was filled with a paint that is not a solid color.
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Returns a subimage; a painted image of the same color if this image was filled with a solid color.
+     * <p>
+     * {@inheritDoc}
+     */
+    @Override
+    public BufferedImage getSubimage(int x, int y, int w, int h) {
+        if (color == null) {
+            return super.getSubimage(x, y, w, h);
+        }
+
+        return new PaintedImage((DirectColorModel) getColorModel(), getRaster().createWritableChild(x, y, w, h, 0, 0, null),
+                paint, color);
+    }
+}
@@ -0,0 +1,80 @@
+package com.defano.jsegue;
+
+import java.awt.*;
+
+/**
+ * Predefined sets of rendering hints applied by segues that draw frames with Java2D, trading rendering speed against
+ * the fidelity of the frames rendered; see {@link AnimatedSegue#setRenderingProfile(RenderingProfile)}.
+ * <p>
+ * Most hints affect only some operations (for example, interpolation affects only images drawn scaled, and color
+ * rendering affects only conversion between color spaces), and the Java2D pipeline is free to ignore any of them, so
+ * the cost of a profile varies by effect and by platform. Effects that compute frames pixel-by-pixel (rather than with
+ * Java2D) are unaffected by rendering hints.
+ */
+public enum RenderingProfile {
+
+    /**
+     * Prefers speed in every respect: nearest-neighbor interpolation, no antialiasing or dithering, and the fastest
+     * rendering, alpha-interpolation and color-rendering algorithms.
+     */
+    FASTEST(Interpolation.NEAREST_NEIGHBOR,
+            RenderingHints.VALUE_RENDER_SPEED,
+            RenderingHints.VALUE_ALPHA_INTERPOLATION_SPEED,
+            RenderingHints.VALUE_COLOR_RENDER_SPEED,
+            RenderingHints.VALUE_ANTIALIAS_OFF,
+            RenderingHints.VALUE_DITHER_DISABLE),
+
+    /**
+     * Smooths images drawn scaled with bilinear interpolation, leaving every other choice to the Java2D pipeline's
+     * defaults.
+     */
+    BALANCED(Interpolation.BILINEAR,
+            RenderingHints.VALUE_RENDER_DEFAULT,
+            RenderingHints.VALUE_ALPHA_INTERPOLATION_DEFAULT,
+            RenderingHints.VALUE_COLOR_RENDER_DEFAULT,
+            RenderingHints.VALUE_ANTIALIAS_DEFAULT,
+            RenderingHints.VALUE_DITHER_DEFAULT),
+
+    /**
+     * Prefers fidelity in every respect: bicubic interpolation, antialiasing, dithering, and the most accurate
+     * rendering, alpha-interpolation and color-rendering algorithms.
+     */
+    QUALITY(Interpolation.BICUBIC,
+            RenderingHints.VALUE_RENDER_QUALITY,
+            RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY,
+            RenderingHints.VALUE_COLOR_RENDER_QUALITY,
+            RenderingHints.VALUE_ANTIALIAS_ON,
+            RenderingHints.VALUE_DITHER_ENABLE);
+
+    private final Interpolation interpolation;
+    private final RenderingHints renderingHints;
+
+    RenderingProfile(Interpolation interpolation, Object rendering, Object alphaInterpolation, Object colorRendering,
+                     Object antialiasing, Object dithering) {
+        this.interpolation = interpolation;
+        this.renderingHints = new RenderingHints(RenderingHints.KEY_INTERPOLATION, interpolation.getRenderingHint());
+        this.renderingHints.put(RenderingHints.KEY_RENDERING, rendering);
+        this.renderingHints.put(RenderingHints.KEY_ALPHA_INTERPOLATION, alphaInterpolation);
+        this.renderingHints.put(RenderingHints.KEY_COLOR_RENDERING, colorRendering);
+        this.renderingHints.put(RenderingHints.KEY_ANTIALIASING, antialiasing);
+        this.renderingHints.put(RenderingHints.KEY_DITHERING, dithering);
+    }
+
+    /**
+     * Gets the interpolation policy of this profile.
+     *
+     * @return The interpolation policy.
+     */
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    /**
+     * Gets the rendering hints of this profile, including the interpolation hint of its interpolation policy.
+     *
+     * @return A new, modifiable copy of the profile's rendering hints.
+     */
+    public RenderingHints getRenderingHints() {
+        return (RenderingHints) renderingHints.clone();
+    }
+}
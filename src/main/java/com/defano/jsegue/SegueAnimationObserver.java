@@ -1,5 +1,6 @@
 package com.defano.jsegue;
 
+import java.awt.*;
 import java.awt.image.BufferedImage;
 
 /**
@@ -16,4 +17,38 @@ public interface SegueAnimationObserver {
      * @param image The frame produced by the animation.
      */
     void onFrameRendered(AnimatedSegue segue, BufferedImage image);
+
+    /**
+     * Fired when a new frame of a segue animation has been generated, along with the region of the frame that changed
+     * since the previous frame delivered to observers (the entire frame, for the first frame of an animation).
+     * Observers that repaint or upload only changed regions of the display should override this method; by default,
+     * it invokes {@link #onFrameRendered(AnimatedSegue, BufferedImage)}.
+     * <p>
+     * When frame buffering is enabled (see {@link AnimatedSegue#setFrameBufferCount(int)}) consecutive frames may be
+     * different images; the damaged region describes how the frame's content differs from that of the previous frame,
+     * not which pixels of the image object were written.
+     *
+     * @param segue  The animation which produced the frame
+     * @param image  The frame produced by the animation.
+     * @param damage The region of the frame (in frame coordinates) that differs from the previous frame; pixels
+     *               outside of this region are identical to those of the previous frame.
+     */
+    default void onFrameRendered(AnimatedSegue segue, BufferedImage image, Shape damage) {
+        onFrameRendered(segue, image);
+    }
+
+    /**
+     * Indicates whether this observer returns each frame it receives to the segue (via
+     * {@link AnimatedSegue#releaseFrame(BufferedImage)}) once it has finished painting it. By default observers take
+     * ownership of every frame and frames are never recycled.
+     * <p>
+     * Opting in has an effect only when the segue has frame buffering enabled (see
+     * {@link AnimatedSegue#setFrameBufferCount(int)}) and every observer of the segue opts in. An observer that opts
+     * in must release every frame it receives exactly once, and must not touch a frame after releasing it.
+     *
+     * @return True if this observer releases frames; false if it assumes ownership of them.
+     */
+    default boolean releasesFrames() {
+        return false;
+    }
 }
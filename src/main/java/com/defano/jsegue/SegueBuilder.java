@@ -3,8 +3,14 @@ package com.defano.jsegue;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * A builder of animated image segues.
@@ -20,8 +26,24 @@ public class SegueBuilder {
     private int maxFps = 30;
     private int durationMs = 1500;
     private boolean overlay = false;
+    private int frameBuffers = 0;
+    private ScheduledExecutorService scheduler;
+    private ForkJoinPool renderPool;
+    private FramePacing framePacing = FramePacing.FIXED_RATE;
+    private Interpolation interpolation = Interpolation.NEAREST_NEIGHBOR;
+    private RenderingHints renderingHints;
+    private FrameCache frameCache;
+    private int keyframeCount = 0;
+    private Executor observerExecutor;
+    private SegueClock clock = SegueClock.SYSTEM;
+    private int imageType = BufferedImage.TYPE_INT_ARGB;
+    private boolean normalizeImages = false;
+    private boolean compatibleImages = false;
+    private OffHeapImages.Storage offHeapStorage;
+    private ImageCache imageCache;
     private Set<SegueAnimationObserver> animationObservers = new HashSet<>();
     private Set<SegueCompletionObserver> completionObservers = new HashSet<>();
+    private Set<SegueMetricsObserver> metricsObservers = new HashSet<>();
 
     private SegueBuilder(Class<? extends AnimatedSegue> segue) {
         this.segue = segue;
@@ -68,6 +90,8 @@ public class SegueBuilder {
     /**
      * Sets a "paint" source image. May be a solid color, or any Paint subclass including textured paint or gradients.
      * Note that only the source or the destination may be a paint; both cannot be paint.
+     * <p>
+     * Solid colors and horizontal gradients are never rendered to a full-size image; see {@link PaintedImage}.
      *
      * @param paint The paint to use as the source image.
      * @return This builder object
@@ -80,6 +104,8 @@ public class SegueBuilder {
     /**
      * Sets a "paint" destination image. May be a solid color, or any Paint subclass including textured paint or gradients.
      * Note that only the source or the destination may be a paint; both cannot be paint.
+     * <p>
+     * Solid colors and horizontal gradients are never rendered to a full-size image; see {@link PaintedImage}.
      *
      * @param paint The paint to use as the destination image
      * @return This builder object
@@ -142,6 +168,254 @@ public class SegueBuilder {
         return this;
     }
 
+    /**
+     * Enables recycling of rendered frames using the given number of frame buffers (two or three is typical).
+     * <p>
+     * See {@link AnimatedSegue#setFrameBufferCount(int)}.
+     *
+     * @param frameBuffers The number of frame buffers to recycle, or zero to disable frame buffering.
+     * @return This builder object
+     */
+    public SegueBuilder withFrameBuffers(int frameBuffers) {
+        this.frameBuffers = frameBuffers;
+        return this;
+    }
+
+    /**
+     * Sets the scheduler that drives the animation; by default, all segues share a single scheduler.
+     * <p>
+     * See {@link AnimatedSegue#setScheduler(ScheduledExecutorService)} and {@link SegueScheduler}.
+     *
+     * @param scheduler The scheduler to animate the segue on
+     * @return This builder object
+     */
+    public SegueBuilder withScheduler(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Renders frames in parallel bands on the common fork-join pool.
+     * <p>
+     * See {@link AnimatedSegue#setRenderPool(ForkJoinPool)}.
+     *
+     * @return This builder object
+     */
+    public SegueBuilder withParallelRendering() {
+        return withRenderPool(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Renders frames in parallel bands on the given fork-join pool, or serially if the pool is null.
+     * <p>
+     * See {@link AnimatedSegue#setRenderPool(ForkJoinPool)}.
+     *
+     * @param renderPool The pool on which to render frame bands
+     * @return This builder object
+     */
+    public SegueBuilder withRenderPool(ForkJoinPool renderPool) {
+        this.renderPool = renderPool;
+        return this;
+    }
+
+    /**
+     * Sets the policy used to pace frames when rendering cannot keep up with the frame rate.
+     * <p>
+     * See {@link FramePacing} and {@link AnimatedSegue#setFramePacing(FramePacing)}.
+     *
+     * @param framePacing The frame pacing policy
+     * @return This builder object
+     */
+    public SegueBuilder withFramePacing(FramePacing framePacing) {
+        this.framePacing = framePacing;
+        return this;
+    }
+
+    /**
+     * Sets the policy by which images drawn scaled (for example, by the stretch and shrink effects) are sampled:
+     * {@link Interpolation#NEAREST_NEIGHBOR} (the default) for speed, or {@link Interpolation#BILINEAR} or
+     * {@link Interpolation#BICUBIC} for quality.
+     * <p>
+     * See {@link AnimatedSegue#setInterpolation(Interpolation)}.
+     *
+     * @param interpolation The interpolation policy
+     * @return This builder object
+     */
+    public SegueBuilder withInterpolation(Interpolation interpolation) {
+        this.interpolation = interpolation;
+        return this;
+    }
+
+    /**
+     * Applies a predefined set of rendering hints and an interpolation policy to every graphics context into which
+     * the segue draws frames: {@link RenderingProfile#FASTEST} for throughput on constrained devices,
+     * {@link RenderingProfile#QUALITY} for fidelity, or {@link RenderingProfile#BALANCED} in between. Replaces any
+     * rendering hints or interpolation policy previously given to this builder.
+     * <p>
+     * See {@link AnimatedSegue#setRenderingProfile(RenderingProfile)}.
+     *
+     * @param renderingProfile The rendering profile, or null to apply no rendering hints and the default interpolation
+     *                         policy ({@link Interpolation#NEAREST_NEIGHBOR})
+     * @return This builder object
+     */
+    public SegueBuilder withRenderingProfile(RenderingProfile renderingProfile) {
+        return withRenderingHints(renderingProfile == null ? null : renderingProfile.getRenderingHints());
+    }
+
+    /**
+     * Applies the given rendering hints to every graphics context into which the segue draws frames. Replaces any
+     * rendering hints (or profile) previously given to this builder; an interpolation hint, if given, also replaces
+     * the interpolation policy.
+     * <p>
+     * See {@link AnimatedSegue#setRenderingHints(Map)}.
+     *
+     * @param renderingHints The rendering hints, or null to apply none and the default interpolation policy
+     *                       ({@link Interpolation#NEAREST_NEIGHBOR})
+     * @return This builder object
+     */
+    public SegueBuilder withRenderingHints(Map<?, ?> renderingHints) {
+        this.renderingHints = new RenderingHints(null);
+        if (renderingHints != null) {
+            this.renderingHints.putAll(renderingHints);
+        } else {
+            this.interpolation = Interpolation.NEAREST_NEIGHBOR;
+        }
+
+        Object interpolationHint = this.renderingHints.get(RenderingHints.KEY_INTERPOLATION);
+        Interpolation interpolation = Interpolation.forRenderingHint(interpolationHint);
+        if (interpolation != null) {
+            this.interpolation = interpolation;
+        }
+
+        return this;
+    }
+
+    /**
+     * Delivers previously rendered frames from the given cache, rendering (and caching) only those frames not already
+     * cached. Share a single cache amongst segues that are replayed repeatedly.
+     * <p>
+     * See {@link FrameCache} and {@link AnimatedSegue#setFrameCache(FrameCache)}.
+     *
+     * @param frameCache The cache of rendered frames
+     * @return This builder object
+     */
+    public SegueBuilder withFrameCache(FrameCache frameCache) {
+        this.frameCache = frameCache;
+        return this;
+    }
+
+    /**
+     * Memoizes the given number of evenly spaced keyframes when seeking, so that scrubbing renders forward from the
+     * nearest keyframe rather than from scratch.
+     * <p>
+     * See {@link AnimatedSegue#seek(float)} and {@link AnimatedSegue#setKeyframeCount(int)}.
+     *
+     * @param keyframeCount The number of keyframes
+     * @return This builder object
+     */
+    public SegueBuilder withKeyframes(int keyframeCount) {
+        this.keyframeCount = keyframeCount;
+        return this;
+    }
+
+    /**
+     * Sets the clock from which animation progress is computed; by default, the system's monotonic clock. Segues
+     * using an {@link ExternalClock} (including a {@link ManualClock}) are animated by the clock's ticks.
+     * <p>
+     * See {@link AnimatedSegue#setClock(SegueClock)}.
+     *
+     * @param clock The clock
+     * @return This builder object
+     */
+    public SegueBuilder withClock(SegueClock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * Notifies observers on the given executor rather than on the animator thread; observers too slow to handle
+     * every frame receive only the most recent one.
+     * <p>
+     * See {@link AnimatedSegue#setObserverExecutor(Executor)}.
+     *
+     * @param observerExecutor The executor on which to notify observers
+     * @return This builder object
+     */
+    public SegueBuilder withObserverExecutor(Executor observerExecutor) {
+        this.observerExecutor = observerExecutor;
+        return this;
+    }
+
+    /**
+     * Converts the source and destination images (once, when the segue is built) into the given image type, so that
+     * rendered frames share the type and no format conversion occurs while animating. {@code TYPE_INT_ARGB_PRE} is
+     * typically fastest: premultiplied pixels composite without division, and Java2D draws them without conversion.
+     * Images already of the given type are used as-is.
+     * <p>
+     * By default, images are used in whatever format they are provided, and paint images are {@code TYPE_INT_ARGB}.
+     *
+     * @param imageType The {@link BufferedImage} type to convert images to, for example
+     *                  {@link BufferedImage#TYPE_INT_ARGB_PRE}
+     * @return This builder object
+     */
+    public SegueBuilder withImageType(int imageType) {
+        this.imageType = imageType;
+        this.normalizeImages = true;
+        this.compatibleImages = false;
+        return this;
+    }
+
+    /**
+     * Converts the source and destination images (once, when the segue is built) into the translucent image format
+     * best suited to the default screen device, so that rendered frames share the format and may be drawn to the
+     * screen without conversion. In a headless environment, images are instead converted to
+     * {@code TYPE_INT_ARGB_PRE}.
+     * <p>
+     * See {@link #withImageType(int)}.
+     *
+     * @return This builder object
+     */
+    public SegueBuilder withCompatibleImages() {
+        this.imageType = BufferedImage.TYPE_INT_ARGB_PRE;
+        this.normalizeImages = true;
+        this.compatibleImages = !GraphicsEnvironment.isHeadless();
+        return this;
+    }
+
+    /**
+     * Stores the source and destination images, and every frame rendered from them, outside of the Java heap, so that
+     * images too large for the heap may be animated. Images provided on the heap are copied off-heap (once, a tile at
+     * a time, when the segue is built), as are paint images; off-heap images in the given storage are used as-is. The
+     * image type (see {@link #withImageType(int)}) is ignored: off-heap images are always premultiplied ARGB.
+     * <p>
+     * Java2D draws off-heap images several times more slowly than heap images; render just the visible portion of
+     * each frame with {@link AnimatedSegue#renderViewport(float, Rectangle, BufferedImage)}. See
+     * {@link OffHeapImages}.
+     *
+     * @param storage Where the images' pixels are stored
+     * @return This builder object
+     */
+    public SegueBuilder withOffHeapImages(OffHeapImages.Storage storage) {
+        this.offHeapStorage = storage;
+        return this;
+    }
+
+    /**
+     * Shares the images that this builder prepares from its inputs (rasterized paints, and images enlarged or
+     * converted to another format) through the given cache, so that building many segues from the same inputs
+     * prepares each image only once. Share a single cache amongst the builders of segues that use the same paints or
+     * images. Images used as-is are never cached.
+     * <p>
+     * See {@link ImageCache}.
+     *
+     * @param imageCache The cache of prepared images
+     * @return This builder object
+     */
+    public SegueBuilder withImageCache(ImageCache imageCache) {
+        this.imageCache = imageCache;
+        return this;
+    }
+
     /**
      * Adds an observer of animation frame generation (invoked each time a new frame is rendered).
      *
@@ -164,6 +438,17 @@ public class SegueBuilder {
         return this;
     }
 
+    /**
+     * Adds an observer of animation performance (invoked with the animation's metrics when animation is finished)
+     *
+     * @param observer The observer
+     * @return This builder object
+     */
+    public SegueBuilder withMetricsObserver(SegueMetricsObserver observer) {
+        this.metricsObservers.add(observer);
+        return this;
+    }
+
     /**
      * Builds an animated segue based on the values provided to the builder.
      * <p>
@@ -200,6 +485,11 @@ public class SegueBuilder {
             theDestination = enlargeImage(targetWidth, targetHeight, theDestination);
         }
 
+        if (normalizeImages || offHeapStorage != null) {
+            theSource = normalizeImage(theSource);
+            theDestination = normalizeImage(theDestination);
+        }
+
         try {
             AnimatedSegue effect = segue.newInstance();
             effect.setSource(theSource);
@@ -207,8 +497,19 @@ public class SegueBuilder {
             effect.setDurationMs(durationMs);
             effect.setFps(maxFps);
             effect.setOverlay(overlay);
+            effect.setFrameBufferCount(frameBuffers);
+            effect.setScheduler(scheduler);
+            effect.setRenderPool(renderPool);
+            effect.setFramePacing(framePacing);
+            effect.setRenderingHints(renderingHints);
+            effect.setInterpolation(interpolation);
+            effect.setFrameCache(frameCache);
+            effect.setKeyframeCount(keyframeCount);
+            effect.setObserverExecutor(observerExecutor);
+            effect.setClock(clock);
             effect.addAnimationObservers(animationObservers);
             effect.addCompletionObservers(completionObservers);
+            effect.addMetricsObservers(metricsObservers);
 
             return effect;
         } catch (InstantiationException | IllegalAccessException e) {
@@ -216,22 +517,128 @@ public class SegueBuilder {
         }
     }
 
+    private BufferedImage normalizeImage(BufferedImage image) {
+        // Painted images are created in the requested format (or, when stored off-heap, premultiplied ARGB on the heap)
+        if (image instanceof PaintedImage) {
+            return image;
+        }
+
+        if (offHeapStorage != null) {
+            if (OffHeapImages.getStorage(image) == offHeapStorage) {
+                return image;
+            }
+
+            return prepareImage(ImageCache.getKey(ImageCache.Preparation.CONVERT, image, image.getWidth(), image.getHeight(), offHeapStorage),
+                    () -> OffHeapImages.copyOf(image, offHeapStorage));
+        }
+
+        if (compatibleImages
+                ? image.getColorModel().equals(getGraphicsConfiguration().getColorModel(Transparency.TRANSLUCENT))
+                : image.getType() == imageType) {
+            return image;
+        }
+
+        return prepareImage(ImageCache.getKey(ImageCache.Preparation.CONVERT, image, image.getWidth(), image.getHeight(), getImageFormat()), () -> {
+            BufferedImage normalized = createImage(image.getWidth(), image.getHeight());
+            Graphics2D g = normalized.createGraphics();
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+
+            return normalized;
+        });
+    }
+
     private BufferedImage enlargeImage(int width, int height, BufferedImage image) {
-        BufferedImage enlarged = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = enlarged.createGraphics();
-        g.drawImage(image, 0, 0, null);
-        g.dispose();
+        return prepareImage(ImageCache.getKey(ImageCache.Preparation.ENLARGE, image, width, height, getImageFormat()), () -> {
+            BufferedImage enlarged = createImage(width, height);
+            draw(enlarged, g -> g.drawImage(image, 0, 0, null));
 
-        return enlarged;
+            return enlarged;
+        });
     }
 
     private BufferedImage paintImage(int width, int height, Paint paint) {
-        BufferedImage enlarged = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = enlarged.createGraphics();
-        g.setPaint(paint);
-        g.fillRect(0, 0, width, height);
-        g.dispose();
+        return prepareImage(ImageCache.getKey(paint, width, height, getImageFormat()), () -> {
+            if (PaintedImage.isHorizontal(paint)) {
+                BufferedImage row = offHeapStorage != null ?
+                        new BufferedImage(width, 1, BufferedImage.TYPE_INT_ARGB_PRE) :
+                        createImage(width, 1);
+                draw(row, g -> {
+                    g.setPaint(paint);
+                    g.fillRect(0, 0, width, 1);
+                });
+
+                PaintedImage painted = PaintedImage.create(row, height, paint);
+                if (painted != null) {
+                    return painted;
+                }
+            }
+
+            BufferedImage enlarged = createImage(width, height);
+            draw(enlarged, g -> {
+                g.setPaint(paint);
+                g.fillRect(0, 0, width, height);
+            });
+
+            return enlarged;
+        });
+    }
+
+    /**
+     * Prepares an image, or gets the image previously prepared with the same key from the image cache (if any).
+     */
+    private BufferedImage prepareImage(ImageCache.Key key, Supplier<BufferedImage> preparation) {
+        if (imageCache == null) {
+            return preparation.get();
+        }
+
+        BufferedImage image = imageCache.get(key);
+        return image != null ? image : imageCache.put(key, preparation.get());
+    }
+
+    /**
+     * Identifies the format of the images created by {@link #createImage(int, int)}.
+     */
+    private Object getImageFormat() {
+        if (offHeapStorage != null) {
+            return offHeapStorage;
+        } else if (compatibleImages) {
+            return getGraphicsConfiguration().getColorModel(Transparency.TRANSLUCENT);
+        } else {
+            return imageType;
+        }
+    }
+
+    /**
+     * Draws into an image; a tile at a time when the image is stored off-heap (see {@link OffHeapImages}).
+     */
+    private static void draw(BufferedImage image, Consumer<Graphics2D> drawing) {
+        if (OffHeapImages.getStorage(image) == null) {
+            Graphics2D g = image.createGraphics();
+            drawing.accept(g);
+            g.dispose();
+        } else {
+            OffHeapImages.forEachTile(new Rectangle(0, 0, image.getWidth(), image.getHeight()), tile -> {
+                Graphics2D g = image.createGraphics();
+                g.clip(tile);
+                drawing.accept(g);
+                g.dispose();
+            });
+        }
+    }
+
+    private BufferedImage createImage(int width, int height) {
+        if (offHeapStorage != null) {
+            return OffHeapImages.create(width, height, offHeapStorage);
+        } else if (compatibleImages) {
+            return getGraphicsConfiguration().createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        } else {
+            return new BufferedImage(width, height, imageType);
+        }
+    }
 
-        return enlarged;
+    private static GraphicsConfiguration getGraphicsConfiguration() {
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
     }
 }
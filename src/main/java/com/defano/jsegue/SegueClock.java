@@ -0,0 +1,26 @@
+package com.defano.jsegue;
+
+/**
+ * A source of time for segue animations, from which animation progress and frame deadlines are computed.
+ * <p>
+ * By default, segues use {@link #SYSTEM}, a monotonic clock that is unaffected by changes to the wall clock, and
+ * frames are driven by the segue's scheduler (see {@link AnimatedSegue#setScheduler(java.util.concurrent.ScheduledExecutorService)}).
+ * Segues using an {@link ExternalClock} are instead driven by that clock's ticks; for example, by a display's refresh
+ * callback or, with a {@link ManualClock}, by a test or an offline renderer advancing time explicitly.
+ */
+@FunctionalInterface
+public interface SegueClock {
+
+    /**
+     * The system's monotonic, high-resolution clock ({@link System#nanoTime()}).
+     */
+    SegueClock SYSTEM = System::nanoTime;
+
+    /**
+     * Gets the current time of this clock. Values are meaningful only relative to one another: the difference
+     * between two readings is the time elapsed between them. Readings must never decrease.
+     *
+     * @return The current time, in nanoseconds.
+     */
+    long nanoTime();
+}
@@ -0,0 +1,190 @@
+package com.defano.jsegue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Performance measurements of a single run of a segue animation: how long frames took to render and to dispatch to
+ * observers, how many frames were produced compared to the requested frame rate, how many were late or dropped (see
+ * {@link FramePacing}), and how much memory rendering allocated.
+ * <p>
+ * Metrics are updated as the animation runs and are safe to read from any thread; see
+ * {@link AnimatedSegue#getMetrics()} and {@link SegueMetricsObserver}.
+ */
+public class SegueMetrics {
+
+    private static final com.sun.management.ThreadMXBean allocationMXBean = getAllocationMXBean();
+
+    private final int requestedFps;
+    private final long startNanos;
+    private final LatencyHistogram renderLatency = new LatencyHistogram();
+    private final LatencyHistogram dispatchLatency = new LatencyHistogram();
+    private long lastFrameNanos;
+    private int frameCount;
+    private int lateFrameCount;
+    private int droppedFrameCount;
+    private long allocatedBytes;
+    private int allocationSamples;
+    private boolean completed;
+
+    SegueMetrics(int requestedFps, long startNanos) {
+        this.requestedFps = requestedFps;
+        this.startNanos = startNanos;
+        this.lastFrameNanos = startNanos;
+    }
+
+    /**
+     * Gets the histogram of frame render latencies; the time taken to render each frame (including the time spent
+     * waiting for parallel bands, if any).
+     *
+     * @return A snapshot of the render latency histogram.
+     */
+    public LatencyHistogram getRenderLatency() {
+        return renderLatency.copy();
+    }
+
+    /**
+     * Gets the histogram of observer dispatch latencies; the time taken by animation observers to handle each frame.
+     * When observers are notified on an executor (see {@link AnimatedSegue#setObserverExecutor(java.util.concurrent.Executor)}),
+     * this is only the time taken to hand each frame off to them.
+     *
+     * @return A snapshot of the dispatch latency histogram.
+     */
+    public LatencyHistogram getDispatchLatency() {
+        return dispatchLatency.copy();
+    }
+
+    /**
+     * Gets the maximum frame rate requested of the animation.
+     *
+     * @return The requested frames per second.
+     */
+    public int getRequestedFps() {
+        return requestedFps;
+    }
+
+    /**
+     * Gets the frame rate actually achieved by the animation; that is, the rate at which frames were delivered to
+     * observers between the start of the animation and the most recent frame.
+     *
+     * @return The achieved frames per second; zero until at least two frames have been delivered.
+     */
+    public synchronized double getAchievedFps() {
+        long elapsedNanos = lastFrameNanos - startNanos;
+        return frameCount < 2 || elapsedNanos <= 0 ? 0 : (frameCount - 1) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the number of frames delivered to observers.
+     *
+     * @return The number of frames.
+     */
+    public synchronized int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Gets the number of frames whose rendering and dispatch overran the frame period.
+     *
+     * @return The number of late frames.
+     */
+    public synchronized int getLateFrameCount() {
+        return lateFrameCount;
+    }
+
+    /**
+     * Gets the number of frames that were dropped to keep pace after a late frame; always zero unless pacing frames
+     * against a deadline (see {@link FramePacing#DEADLINE}).
+     *
+     * @return The number of dropped frames.
+     */
+    public synchronized int getDroppedFrameCount() {
+        return droppedFrameCount;
+    }
+
+    /**
+     * Gets the mean number of bytes allocated on the heap while rendering a frame. Only allocations made by the thread
+     * rendering the frame are counted; allocations made by a parallel render pool (see
+     * {@link AnimatedSegue#setRenderPool(java.util.concurrent.ForkJoinPool)}) are not.
+     *
+     * @return The mean bytes allocated per frame, or -1 if the JVM does not support measuring thread allocation.
+     */
+    public synchronized long getAllocatedBytesPerFrame() {
+        if (allocationMXBean == null) {
+            return -1;
+        }
+
+        return allocationSamples == 0 ? 0 : allocatedBytes / allocationSamples;
+    }
+
+    /**
+     * Determines whether the animation these metrics describe ran to completion.
+     *
+     * @return True if the animation has completed; false if it is running or was stopped.
+     */
+    public synchronized boolean isCompleted() {
+        return completed;
+    }
+
+    synchronized void recordFrame(long renderNanos, long dispatchNanos, long allocatedBytes, long deliveredNanos) {
+        renderLatency.record(renderNanos);
+        dispatchLatency.record(dispatchNanos);
+        frameCount++;
+        lastFrameNanos = deliveredNanos;
+
+        if (allocatedBytes >= 0) {
+            this.allocatedBytes += allocatedBytes;
+            allocationSamples++;
+        }
+    }
+
+    synchronized void recordLateFrame(int droppedFrames) {
+        lateFrameCount++;
+        droppedFrameCount += droppedFrames;
+    }
+
+    synchronized void recordCompleted() {
+        completed = true;
+    }
+
+    /**
+     * Gets the total number of bytes the current thread has allocated on the heap.
+     *
+     * @return The number of bytes allocated, or -1 if the JVM does not support measuring thread allocation.
+     */
+    static long getCurrentThreadAllocatedBytes() {
+        return allocationMXBean == null ? -1 : allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationMXBean() {
+        try {
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+
+                if (allocationMXBean.isThreadAllocatedMemorySupported() && allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                    return allocationMXBean;
+                }
+            }
+        } catch (LinkageError | UnsupportedOperationException e) {
+            // Not a HotSpot-derived JVM; allocation will not be measured
+        }
+
+        return null;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SegueMetrics{" +
+                "requestedFps=" + requestedFps +
+                ", achievedFps=" + String.format("%.1f", getAchievedFps()) +
+                ", frameCount=" + frameCount +
+                ", lateFrameCount=" + lateFrameCount +
+                ", droppedFrameCount=" + droppedFrameCount +
+                ", allocatedBytesPerFrame=" + getAllocatedBytesPerFrame() +
+                ", renderLatency=" + renderLatency +
+                ", dispatchLatency=" + dispatchLatency +
+                '}';
+    }
+}
@@ -0,0 +1,13 @@
+package com.defano.jsegue;
+
+/**
+ * An observer of the performance of completed animations.
+ */
+public interface SegueMetricsObserver {
+    /**
+     * Fired when an animation has rendered its last frame, just before completion observers are notified.
+     * @param segue The segue animation which completed.
+     * @param metrics The performance metrics of the animation.
+     */
+    void onSegueMetrics(AnimatedSegue segue, SegueMetrics metrics);
+}
@@ -0,0 +1,254 @@
+package com.defano.jsegue;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An optional JMX MBean aggregating the metrics (see {@link SegueMetrics}) of every segue animated while it is
+ * installed. Monitoring is disabled by default; call {@link #install()} to register the monitor with the platform
+ * MBean server under the name {@value #OBJECT_NAME}.
+ */
+public final class SegueMonitor implements SegueMonitorMXBean {
+
+    /**
+     * The name under which the monitor is registered with the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "com.defano.jsegue:type=SegueMonitor";
+
+    private static volatile SegueMonitor installed;
+
+    private final Map<AnimatedSegue, SegueMetrics> running = Collections.synchronizedMap(new WeakHashMap<>());
+    private final LatencyHistogram completedRenderLatency = new LatencyHistogram();
+    private final LatencyHistogram completedDispatchLatency = new LatencyHistogram();
+    private long completedSegues;
+    private long completedFrames;
+    private long completedLateFrames;
+    private long completedDroppedFrames;
+    private long completedAllocatedBytes;
+    private long completedAllocationFrames;
+
+    private SegueMonitor() {
+    }
+
+    /**
+     * Installs the monitor, registering it with the platform MBean server; has no effect if already installed. Only
+     * segues started after the monitor is installed are monitored.
+     *
+     * @return The installed monitor.
+     * @throws IllegalStateException If the monitor cannot be registered.
+     */
+    public static synchronized SegueMonitor install() {
+        if (installed == null) {
+            SegueMonitor monitor = new SegueMonitor();
+
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(monitor, new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                throw new IllegalStateException("Failed to register segue monitor.", e);
+            }
+
+            installed = monitor;
+        }
+
+        return installed;
+    }
+
+    /**
+     * Uninstalls the monitor, unregistering it from the platform MBean server; has no effect if not installed.
+     */
+    public static synchronized void uninstall() {
+        if (installed != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                // Already unregistered by someone else; nothing to do
+            }
+
+            installed = null;
+        }
+    }
+
+    /**
+     * Gets the installed monitor.
+     *
+     * @return The monitor, or null if monitoring is not installed.
+     */
+    public static SegueMonitor getInstalled() {
+        return installed;
+    }
+
+    static void segueStarted(AnimatedSegue segue, SegueMetrics metrics) {
+        SegueMonitor monitor = installed;
+        if (monitor != null) {
+            monitor.running.put(segue, metrics);
+        }
+    }
+
+    static void segueStopped(AnimatedSegue segue, SegueMetrics metrics) {
+        SegueMonitor monitor = installed;
+        if (monitor != null && monitor.running.remove(segue, metrics)) {
+            monitor.accumulate(metrics);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getRunningSegueCount() {
+        return getRunning().size();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized long getCompletedSegueCount() {
+        return completedSegues;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getFrameCount() {
+        long frames;
+        synchronized (this) {
+            frames = completedFrames;
+        }
+
+        for (SegueMetrics metrics : getRunning()) {
+            frames += metrics.getFrameCount();
+        }
+
+        return frames;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getLateFrameCount() {
+        long frames;
+        synchronized (this) {
+            frames = completedLateFrames;
+        }
+
+        for (SegueMetrics metrics : getRunning()) {
+            frames += metrics.getLateFrameCount();
+        }
+
+        return frames;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getDroppedFrameCount() {
+        long frames;
+        synchronized (this) {
+            frames = completedDroppedFrames;
+        }
+
+        for (SegueMetrics metrics : getRunning()) {
+            frames += metrics.getDroppedFrameCount();
+        }
+
+        return frames;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMinRunningFpsRatio() {
+        double ratio = 1.0;
+
+        for (SegueMetrics metrics : getRunning()) {
+            if (metrics.getFrameCount() >= 2 && metrics.getRequestedFps() > 0) {
+                ratio = Math.min(ratio, metrics.getAchievedFps() / metrics.getRequestedFps());
+            }
+        }
+
+        return ratio;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMeanRenderLatencyMillis() {
+        return getRenderLatency().getMeanNanos() / 1e6;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getP99RenderLatencyMillis() {
+        return getRenderLatency().getPercentileNanos(99.0) / 1e6;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getP99DispatchLatencyMillis() {
+        LatencyHistogram latency = completedDispatchLatency.copy();
+        for (SegueMetrics metrics : getRunning()) {
+            latency.add(metrics.getDispatchLatency());
+        }
+
+        return latency.getPercentileNanos(99.0) / 1e6;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getAllocatedBytesPerFrame() {
+        if (SegueMetrics.getCurrentThreadAllocatedBytes() < 0) {
+            return -1;
+        }
+
+        long bytes, frames;
+        synchronized (this) {
+            bytes = completedAllocatedBytes;
+            frames = completedAllocationFrames;
+        }
+
+        for (SegueMetrics metrics : getRunning()) {
+            bytes += metrics.getAllocatedBytesPerFrame() * metrics.getFrameCount();
+            frames += metrics.getFrameCount();
+        }
+
+        return frames == 0 ? 0 : bytes / frames;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void reset() {
+        completedSegues = completedFrames = completedLateFrames = completedDroppedFrames = 0;
+        completedAllocatedBytes = completedAllocationFrames = 0;
+        completedRenderLatency.reset();
+        completedDispatchLatency.reset();
+    }
+
+    private LatencyHistogram getRenderLatency() {
+        LatencyHistogram latency = completedRenderLatency.copy();
+        for (SegueMetrics metrics : getRunning()) {
+            latency.add(metrics.getRenderLatency());
+        }
+
+        return latency;
+    }
+
+    private List<SegueMetrics> getRunning() {
+        synchronized (running) {
+            return new ArrayList<>(running.values());
+        }
+    }
+
+    private synchronized void accumulate(SegueMetrics metrics) {
+        if (metrics.isCompleted()) {
+            completedSegues++;
+        }
+
+        completedFrames += metrics.getFrameCount();
+        completedLateFrames += metrics.getLateFrameCount();
+        completedDroppedFrames += metrics.getDroppedFrameCount();
+        completedRenderLatency.add(metrics.getRenderLatency());
+        completedDispatchLatency.add(metrics.getDispatchLatency());
+
+        if (metrics.getAllocatedBytesPerFrame() >= 0) {
+            completedAllocatedBytes += metrics.getAllocatedBytesPerFrame() * metrics.getFrameCount();
+            completedAllocationFrames += metrics.getFrameCount();
+        }
+    }
+}
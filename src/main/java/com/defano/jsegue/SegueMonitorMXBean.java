@@ -0,0 +1,64 @@
+package com.defano.jsegue;
+
+/**
+ * JMX management interface aggregating the performance of all segues animated while the monitor is installed; see
+ * {@link SegueMonitor}.
+ */
+public interface SegueMonitorMXBean {
+
+    /**
+     * @return The number of segues currently animating.
+     */
+    int getRunningSegueCount();
+
+    /**
+     * @return The number of segues that have run to completion.
+     */
+    long getCompletedSegueCount();
+
+    /**
+     * @return The total number of frames delivered by all segues, running and completed.
+     */
+    long getFrameCount();
+
+    /**
+     * @return The total number of late frames across all segues, running and completed.
+     */
+    long getLateFrameCount();
+
+    /**
+     * @return The total number of dropped frames across all segues, running and completed.
+     */
+    long getDroppedFrameCount();
+
+    /**
+     * @return The lowest ratio of achieved to requested frame rate amongst running segues, or 1.0 when none are
+     * running.
+     */
+    double getMinRunningFpsRatio();
+
+    /**
+     * @return The mean frame render latency across all segues, in milliseconds.
+     */
+    double getMeanRenderLatencyMillis();
+
+    /**
+     * @return The (estimated) 99th percentile frame render latency across all segues, in milliseconds.
+     */
+    double getP99RenderLatencyMillis();
+
+    /**
+     * @return The (estimated) 99th percentile observer dispatch latency across all segues, in milliseconds.
+     */
+    double getP99DispatchLatencyMillis();
+
+    /**
+     * @return The mean number of bytes allocated per rendered frame across all segues, or -1 if not measurable.
+     */
+    long getAllocatedBytesPerFrame();
+
+    /**
+     * Discards the statistics of completed segues; statistics of running segues are unaffected.
+     */
+    void reset();
+}
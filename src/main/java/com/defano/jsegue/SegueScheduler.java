@@ -0,0 +1,59 @@
+package com.defano.jsegue;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Factory of the executors that drive segue animations.
+ * <p>
+ * Animating segues do not own threads; each running segue registers a periodic task with a scheduler, so the number
+ * of animator threads remains constant irrespective of how many segues are animating at once. Unless otherwise
+ * specified (see {@link AnimatedSegue#setScheduler(ScheduledExecutorService)}), all segues share the scheduler
+ * returned by {@link #getShared()}.
+ */
+public final class SegueScheduler {
+
+    private static final AtomicInteger schedulerCount = new AtomicInteger();
+    private static ScheduledExecutorService shared;
+
+    private SegueScheduler() {
+    }
+
+    /**
+     * Gets the scheduler shared by all segues that have not been assigned a scheduler of their own. The shared
+     * scheduler uses one daemon thread per available processor.
+     *
+     * @return The shared scheduler.
+     */
+    public static synchronized ScheduledExecutorService getShared() {
+        if (shared == null) {
+            shared = create(Runtime.getRuntime().availableProcessors());
+        }
+
+        return shared;
+    }
+
+    /**
+     * Creates a new scheduler backed by a fixed-size pool of daemon threads; suitable for sharing amongst any number
+     * of segues.
+     *
+     * @param threadCount The number of animator threads
+     * @return The new scheduler.
+     */
+    public static ScheduledExecutorService create(int threadCount) {
+        String namePrefix = "segue-animator-" + schedulerCount.incrementAndGet() + "-";
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(Math.max(1, threadCount), threadFactory);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
@@ -0,0 +1,254 @@
+package com.defano.jsegue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays several segues one after another on a single timeline; for example, A to B, then B to C, and so on.
+ * <p>
+ * Each segue begins at the precise moment (according to its clock) that its predecessor's animation ends, and is
+ * started by the thread that delivered its predecessor's final frame, before that segue's completion observers are
+ * notified. While a segue is animating, the next segue in the sequence is prepared on a background executor (see
+ * {@link AnimatedSegue#prepare()}), so that the first frame of each segue is ready the moment it's needed. A segue
+ * that follows itself (as a lone segue looping, or at either end of a ping-pong) is not prepared while it animates.
+ * <p>
+ * Segues in a sequence should share a clock, and must not be started, stopped or added to another sequence
+ * independently of the sequence.
+ */
+@SuppressWarnings("unused")
+public class SegueSequence {
+
+    /**
+     * The order in which a sequence plays its segues.
+     */
+    public enum PlaybackMode {
+
+        /**
+         * Plays each segue once, in order, then completes.
+         */
+        ONCE,
+
+        /**
+         * Plays each segue in order, then starts again from the first, until stopped.
+         */
+        LOOP,
+
+        /**
+         * Plays each segue in order, then each segue in reverse (see {@link AnimatedSegue#setReversed(boolean)}) from
+         * the last back to the first, and starts again, until stopped.
+         */
+        PING_PONG
+    }
+
+    private final List<AnimatedSegue> segues;
+    private final Set<SegueCompletionObserver> completionObserver = new CopyOnWriteArraySet<>();
+    private PlaybackMode playbackMode = PlaybackMode.ONCE;
+    private Executor prepareExecutor = ForkJoinPool.commonPool();
+    private PlaybackMode playingMode = PlaybackMode.ONCE;
+    private boolean isRunning;
+    private int step;
+    private long stepStartNanos;
+
+    /**
+     * Creates a sequence of the given segues.
+     *
+     * @param segues The segues, in the order they should play
+     */
+    public SegueSequence(AnimatedSegue... segues) {
+        this(Arrays.asList(segues));
+    }
+
+    /**
+     * Creates a sequence of the given segues.
+     *
+     * @param segues The segues, in the order they should play
+     */
+    public SegueSequence(List<AnimatedSegue> segues) {
+        if (segues.isEmpty()) {
+            throw new IllegalArgumentException("Must specify at least one segue to sequence.");
+        }
+
+        this.segues = new ArrayList<>(segues);
+        for (AnimatedSegue thisSegue : this.segues) {
+            thisSegue.setSequenceHandoff(() -> onSegueCompleted(thisSegue));
+        }
+    }
+
+    /**
+     * Sets the order in which segues are played; by default, {@link PlaybackMode#ONCE}. Takes effect the next time
+     * the sequence is started.
+     *
+     * @param playbackMode The playback mode
+     * @return This sequence
+     */
+    public SegueSequence withPlaybackMode(PlaybackMode playbackMode) {
+        this.playbackMode = playbackMode;
+        return this;
+    }
+
+    /**
+     * Sets the executor on which upcoming segues are prepared; by default, the common fork-join pool.
+     *
+     * @param prepareExecutor The executor on which to prepare segues
+     * @return This sequence
+     */
+    public SegueSequence withPrepareExecutor(Executor prepareExecutor) {
+        this.prepareExecutor = prepareExecutor;
+        return this;
+    }
+
+    /**
+     * Adds an observer of frames produced by every segue in this sequence.
+     *
+     * @param observer The observer
+     * @return This sequence
+     */
+    public SegueSequence withAnimationObserver(SegueAnimationObserver observer) {
+        for (AnimatedSegue thisSegue : segues) {
+            thisSegue.addAnimationObserver(observer);
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds an observer of sequence completion, notified (with the last segue played) when a sequence played
+     * {@link PlaybackMode#ONCE} finishes.
+     *
+     * @param observer The observer
+     * @return This sequence
+     */
+    public SegueSequence withCompletionObserver(SegueCompletionObserver observer) {
+        completionObserver.add(observer);
+        return this;
+    }
+
+    /**
+     * Gets the segues in this sequence.
+     *
+     * @return The segues, in the order they play.
+     */
+    public List<AnimatedSegue> getSegues() {
+        return new ArrayList<>(segues);
+    }
+
+    /**
+     * Gets the playback mode of this sequence.
+     *
+     * @return The playback mode.
+     */
+    public PlaybackMode getPlaybackMode() {
+        return playbackMode;
+    }
+
+    /**
+     * Starts (or restarts) the sequence with its first segue.
+     */
+    public synchronized void start() {
+        stop();
+
+        isRunning = true;
+        playingMode = playbackMode;
+        AnimatedSegue first = getSegue(0);
+        play(0, first.getClock().nanoTime());
+    }
+
+    /**
+     * Stops the sequence; has no effect if the sequence isn't running.
+     */
+    public synchronized void stop() {
+        if (isRunning) {
+            isRunning = false;
+            getSegue(step).stop();
+        }
+    }
+
+    /**
+     * Determines if the sequence is running.
+     *
+     * @return True if the sequence is running; false otherwise.
+     */
+    public synchronized boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Gets the segue currently playing (or that played most recently).
+     *
+     * @return The current segue.
+     */
+    public synchronized AnimatedSegue getCurrentSegue() {
+        return getSegue(step);
+    }
+
+    private void play(int step, long startNanos) {
+        AnimatedSegue segue = getSegue(step);
+
+        this.step = step;
+        this.stepStartNanos = startNanos;
+
+        segue.setReversed(isReversed(step));
+        segue.start(startNanos);
+
+        // Preparing the segue that's animating would render its next first frame alongside its own animation
+        int next = getNextStep(step);
+        if (next >= 0 && getSegue(next) != segue) {
+            AnimatedSegue nextSegue = getSegue(next);
+            boolean reversed = isReversed(next);
+            prepareExecutor.execute(() -> nextSegue.prepare(reversed));
+        }
+    }
+
+    private void onSegueCompleted(AnimatedSegue segue) {
+        synchronized (this) {
+            if (!isRunning || segue != getSegue(step)) {
+                return;
+            }
+
+            int next = getNextStep(step);
+            if (next >= 0) {
+                AnimatedSegue nextSegue = getSegue(next);
+
+                // Continue the timeline where this segue's animation ended, if the segues share a clock
+                long startNanos = nextSegue.getClock() == segue.getClock() ?
+                        stepStartNanos + TimeUnit.MILLISECONDS.toNanos(segue.getDurationMs()) :
+                        nextSegue.getClock().nanoTime();
+
+                play(next, startNanos);
+                return;
+            }
+
+            isRunning = false;
+        }
+
+        for (SegueCompletionObserver thisObserver : completionObserver) {
+            thisObserver.onSegueAnimationCompleted(segue);
+        }
+    }
+
+    private int getStepCount() {
+        return playingMode == PlaybackMode.PING_PONG ? segues.size() * 2 : segues.size();
+    }
+
+    private int getNextStep(int step) {
+        if (step + 1 < getStepCount()) {
+            return step + 1;
+        }
+
+        return playingMode == PlaybackMode.ONCE ? -1 : 0;
+    }
+
+    private AnimatedSegue getSegue(int step) {
+        return step < segues.size() ? segues.get(step) : segues.get(segues.size() * 2 - 1 - step);
+    }
+
+    private boolean isReversed(int step) {
+        return step >= segues.size();
+    }
+}
@@ -0,0 +1,227 @@
+package com.defano.jsegue.renderers;
+
+import com.defano.jsegue.AnimatedSegue;
+import com.defano.jsegue.OffHeapImages;
+import com.defano.jsegue.PaintedImage;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Base class of effects in which one image is scaled vertically over (or away from) the other: the destination
+ * stretching out over the source, or the source shrinking away to expose the destination.
+ * <p>
+ * The scaled image is drawn straight into the frame with a single scaled blit, sampled according to the segue's
+ * interpolation policy (see {@link AnimatedSegue#setInterpolation(com.defano.jsegue.Interpolation)}), or according to
+ * the interpolation hint of a caller-supplied graphics context that the frame is drawn into. When
+ * mipmapping is enabled, images reduced to less than half their height are scaled from a pyramid of successively
+ * halved copies of the image (computed once per image) rather than from the image itself, so that heavy reduction
+ * remains cheap and free of aliasing.
+ */
+public abstract class AbstractStretchEffect extends AnimatedSegue {
+
+    public enum Anchor {
+        TOP, BOTTOM, CENTER
+    }
+
+    private final Anchor anchor;
+    private final boolean shrinking;
+    private boolean mipmapped = false;
+    private MipPyramid pyramid;
+
+    /**
+     * @param anchor    The edge (or center) of the frame to which the scaled image is anchored
+     * @param shrinking True if the source shrinks away from the destination; false if the destination stretches over
+     *                  the source
+     */
+    protected AbstractStretchEffect(Anchor anchor, boolean shrinking) {
+        this.anchor = anchor;
+        this.shrinking = shrinking;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
+        return drawFrame(src, dst, progress);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
+        BufferedImage fixed = shrinking ? dst : src;
+        BufferedImage scaled = shrinking ? src : dst;
+
+        // Calculate stretch distance
+        int stretchDistance = shrinking ?
+                src.getHeight() - (int) (progress * src.getHeight()) :
+                (int) (progress * src.getHeight());
+
+        // Never less than a pixel tall; when fully shrunk (or not yet stretched) from the bottom, it lies below the frame
+        int stretchedY = getStretchedY(src.getHeight(), stretchDistance);
+        Rectangle stretched = new Rectangle(0, stretchedY, src.getWidth(), Math.max(1, stretchDistance));
+
+        // Draw the fixed image on the frame, leaving the region beneath the scaled image empty (unless overlaying)
+        Graphics2D fixedGraphics = isOverlay() ?
+                (Graphics2D) g.create() :
+                Clipping.excluding(g, src.getWidth(), src.getHeight(), stretched);
+        Images.draw(fixedGraphics, fixed, 0, 0);
+        fixedGraphics.dispose();
+
+        // Then, scale the other image straight into its place on the frame
+        BufferedImage level = getLevel(scaled, stretched.height);
+        if (OffHeapImages.getStorage(level) == null) {
+            Images.draw(g, level, stretched.x, stretched.y, stretched.width, stretched.height);
+        } else {
+            drawCells(level, stretched, g);
+        }
+    }
+
+    /**
+     * Scales an off-heap image into the given rectangle a cell at a time. Java2D converts the entire region of an
+     * off-heap image that it scales into a heap image, but skips (without converting) cells that fall outside the
+     * region being drawn; thus only visible cells are converted, each requiring a heap image of bounded size.
+     */
+    private static void drawCells(BufferedImage image, Rectangle bounds, Graphics2D g) {
+        double scaleX = (double) bounds.width / image.getWidth();
+        double scaleY = (double) bounds.height / image.getHeight();
+
+        // Cells span about as many image pixels as a tile, less the margins
+        int cellSize = (int) Math.sqrt(OffHeapImages.TILE_PIXELS) - 4;
+        int cellWidth = Math.max(1, (int) (cellSize * scaleX));
+        int cellHeight = Math.max(1, (int) (cellSize * scaleY));
+
+        for (int y = bounds.y; y < bounds.y + bounds.height; y += cellHeight) {
+            for (int x = bounds.x; x < bounds.x + bounds.width; x += cellWidth) {
+                Rectangle cell = new Rectangle(x, y, cellWidth, cellHeight).intersection(bounds);
+
+                // The image pixels scaled into the cell, plus a margin sampled when interpolating pixels at its edges
+                int x1 = Math.max(0, (int) Math.floor((cell.x - bounds.x) / scaleX) - 2);
+                int y1 = Math.max(0, (int) Math.floor((cell.y - bounds.y) / scaleY) - 2);
+                int x2 = Math.min(image.getWidth(), (int) Math.ceil((cell.x + cell.width - bounds.x) / scaleX) + 2);
+                int y2 = Math.min(image.getHeight(), (int) Math.ceil((cell.y + cell.height - bounds.y) / scaleY) + 2);
+
+                AffineTransform transform = AffineTransform.getTranslateInstance(bounds.x, bounds.y);
+                transform.scale(scaleX, scaleY);
+                transform.translate(x1, y1);
+
+                Graphics2D cellGraphics = (Graphics2D) g.create();
+                cellGraphics.clip(cell);
+                cellGraphics.drawImage(image.getSubimage(x1, y1, x2 - x1, y2 - y1), transform, null);
+                cellGraphics.dispose();
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object getParameterKey() {
+        return mipmapped;
+    }
+
+    /**
+     * Determines whether mipmapping is enabled; see {@link #setMipmapped(boolean)}.
+     *
+     * @return True if mipmapping is enabled; false otherwise.
+     */
+    public boolean isMipmapped() {
+        return mipmapped;
+    }
+
+    /**
+     * Enables or disables mipmapping. When enabled, images reduced to less than half their height are scaled from a
+     * precomputed copy of the image at a height between one and two times the height drawn, each row of which averages
+     * the rows it replaces; thus reduced images are smooth (free of the aliasing of sampling only some rows), and
+     * cheap to draw even with bilinear or bicubic interpolation. The copies require, in total, as much memory as the
+     * image itself. Disabled by default.
+     *
+     * @param mipmapped True to enable mipmapping
+     */
+    public void setMipmapped(boolean mipmapped) {
+        this.mipmapped = mipmapped;
+    }
+
+    private int getStretchedY(int height, int stretchDistance) {
+        switch (anchor) {
+            case BOTTOM:
+                return height - stretchDistance;
+            case CENTER:
+                return height / 2 - stretchDistance / 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the image from which to scale an image to the given height: the image itself, or (when mipmapping) the
+     * smallest level of its pyramid no shorter than that height.
+     */
+    private synchronized BufferedImage getLevel(BufferedImage image, int height) {
+        // Every row of a painted image is the same, so scaling one vertically discards nothing
+        if (!mipmapped || height * 2 > image.getHeight() || image instanceof PaintedImage) {
+            return image;
+        }
+
+        if (pyramid == null || pyramid.image != image) {
+            pyramid = new MipPyramid(image);
+        }
+
+        return pyramid.getLevel(height);
+    }
+
+    /**
+     * Successively halved (in height) copies of an image, computed as they are first needed. Rows are averaged in
+     * premultiplied space, so translucent pixels average without fringing.
+     */
+    private static class MipPyramid {
+        private final BufferedImage image;
+        private BufferedImage[] levels = new BufferedImage[]{};
+
+        MipPyramid(BufferedImage image) {
+            this.image = image;
+        }
+
+        BufferedImage getLevel(int height) {
+            BufferedImage level = image;
+
+            for (int index = 0; (level.getHeight() + 1) / 2 >= height && level.getHeight() > 1; index++) {
+                if (index == levels.length) {
+                    BufferedImage[] grown = new BufferedImage[index + 1];
+                    System.arraycopy(levels, 0, grown, 0, index);
+                    grown[index] = halve(level);
+                    levels = grown;
+                }
+
+                level = levels[index];
+            }
+
+            return level;
+        }
+
+        private static BufferedImage halve(BufferedImage image) {
+            int width = image.getWidth();
+            int height = (image.getHeight() + 1) / 2;
+            OffHeapImages.Storage storage = OffHeapImages.getStorage(image);
+            BufferedImage half = storage == null ?
+                    new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE) :
+                    OffHeapImages.create(width, height, storage);
+
+            int[] upper = new int[width];
+            int[] lower = new int[width];
+
+            for (int y = 0; y < height; y++) {
+                Pixels.readPremultipliedRow(image, 0, y * 2, width, upper);
+                Pixels.readPremultipliedRow(image, 0, Math.min(y * 2 + 1, image.getHeight() - 1), width, lower);
+
+                // Average each channel of the two rows' pixels, rounding up, four channels at a time
+                for (int x = 0; x < width; x++) {
+                    upper[x] = (upper[x] | lower[x]) - (((upper[x] ^ lower[x]) >>> 1) & 0x7f7f7f7f);
+                }
+
+                Pixels.writePremultipliedRow(half, 0, y, width, upper);
+            }
+
+            return half;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.defano.jsegue.renderers;
 import com.defano.jsegue.AnimatedSegue;
 
 import java.awt.*;
+import java.awt.geom.Area;
+import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
 
 public abstract class AbstractZoomEffect extends AnimatedSegue {
@@ -26,71 +28,87 @@ public abstract class AbstractZoomEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
-        int diagonal = (int) (Math.sqrt(Math.pow(src.getHeight(), 2) + Math.pow(src.getWidth(), 2)));
+        return drawFrame(src, dst, progress);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
+        int radius = getRadius(src.getWidth(), src.getHeight(), progress);
 
         if (direction == ZoomDirection.ZOOM_IN) {
-            return renderZoom(dst, src, (int)((diagonal / 2) * (1.0f - progress)));
+            drawZoom(dst, src, radius, g);
         } else {
-            return renderZoom(src, dst, (int)((diagonal / 2) * progress));
+            drawZoom(src, dst, radius, g);
         }
     }
 
-    private BufferedImage renderZoom(BufferedImage src, BufferedImage dst, int radius) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
-
-        g.drawImage(src, 0, 0, null);
+    /** {@inheritDoc} */
+    @Override
+    protected Shape getDamage(int width, int height, float fromProgress, float toProgress) {
+        int fromRadius = getRadius(width, height, fromProgress);
+        int toRadius = getRadius(width, height, toProgress);
 
-        if (!isOverlay()) {
-            // Cut the Iris out of the from image (leave a transparent hole) and draw it onto the frame
-            maskZoomRegion(g, src.getWidth(), src.getHeight(), radius, AlphaComposite.getInstance(AlphaComposite.DST_OUT));
+        if (fromRadius == toRadius) {
+            return new Rectangle();
         }
 
-        // Make a copy of the to image so we can cut an iris out of it
-        BufferedImage iris = new BufferedImage(dst.getWidth(), dst.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D ig = iris.createGraphics();
-        ig.drawImage(dst, 0, 0, null);
+        // Only the ring between the previous and current apertures has changed; widened by a pixel on either side to
+        // cover pixels along the edge of a curved aperture, which may be rasterized either side of the true edge
+        Area damage = new Area(getZoomShape(width, height, Math.max(fromRadius, toRadius) + 1));
+        damage.subtract(new Area(getZoomShape(width, height, Math.max(0, Math.min(fromRadius, toRadius) - 1))));
+        return damage;
+    }
 
-        // Cut out the iris from the to image (leaving an opaque hole on a transparent background)
-        maskZoomRegion(ig, dst.getWidth(), dst.getHeight(), radius, AlphaComposite.getInstance(AlphaComposite.DST_IN));
-        ig.dispose();
+    /**
+     * Rectangular apertures only; a curved aperture clipped to the damaged ring may be rasterized slightly differently
+     * than the same aperture drawn in full.
+     */
+    @Override
+    protected boolean isDeltaRenderable() {
+        return shape == ZoomShape.RECTANGLE;
+    }
 
-        // Draw the cut-out iris onto the frame
-        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER));
-        g.drawImage(iris, 0, 0, null);
+    private int getRadius(int width, int height, float progress) {
+        int diagonal = (int) (Math.sqrt(Math.pow(height, 2) + Math.pow(width, 2)));
 
-        return frame;
+        if (direction == ZoomDirection.ZOOM_IN) {
+            return (int)((diagonal / 2) * (1.0f - progress));
+        } else {
+            return (int)((diagonal / 2) * progress);
+        }
     }
 
+    private void drawZoom(BufferedImage src, BufferedImage dst, int radius, Graphics2D g) {
+        Shape zoomShape = getZoomShape(src.getWidth(), src.getHeight(), radius);
+
+        // Draw the from image only outside of the iris, leaving a transparent hole (unless overlaying)
+        Graphics2D outsideGraphics = isOverlay() ?
+                (Graphics2D) g.create() :
+                Clipping.excluding(g, src.getWidth(), src.getHeight(), zoomShape);
+        Images.draw(outsideGraphics, src, 0, 0);
+        outsideGraphics.dispose();
+
+        // Draw the to image only inside of the iris
+        Graphics2D insideGraphics = Clipping.including(g, zoomShape);
+        Images.draw(insideGraphics, dst, 0, 0);
+        insideGraphics.dispose();
+    }
 
     /**
-     * Punches out the ZoomShape of a specified radius in the given graphics context.
+     * Gets the ZoomShape of a specified radius, centered in a frame of the given size.
      *
-     * @param g The graphics context to modify
      * @param width The width of the frame
      * @param height The height of the frame
-     * @param radius The radius of the iris to create
-     * @param mode The Porter-Duff mode to apply
+     * @param radius The radius of the iris
+     * @return The shape of the iris
      */
-    protected void maskZoomRegion(Graphics g, int width, int height, int radius, AlphaComposite mode) {
-
-        BufferedImage mask = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        Graphics mg = mask.createGraphics();
-        drawZoomShape(mg, width, height, radius);
-        mg.dispose();
-
-        ((Graphics2D)g).setComposite(mode);
-        g.drawImage(mask, 0, 0, null);
-    }
-
-    private void drawZoomShape(Graphics g, int w, int h, int radius) {
+    protected Shape getZoomShape(int width, int height, int radius) {
         switch (shape) {
             case CIRCLE:
-                g.fillOval((w / 2) - radius, (h / 2) - radius, radius * 2, radius * 2);
-                break;
-            case RECTANGLE:
-                g.fillRect((w / 2) - radius, (h / 2) - radius, radius * 2, radius * 2);
-                break;
+                return new Ellipse2D.Float((width / 2) - radius, (height / 2) - radius, radius * 2, radius * 2);
+            default:
+                return new Rectangle((width / 2) - radius, (height / 2) - radius, radius * 2, radius * 2);
         }
     }
 
@@ -10,21 +10,119 @@ import java.awt.image.BufferedImage;
  */
 public class AlphaDissolveEffect extends AnimatedSegue {
 
+    private boolean exactBlending = false;
+
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
+        BufferedImage frame = newFrame(src.getWidth(), src.getHeight());
+        renderBand(src, dst, progress, frame, new Rectangle(0, 0, src.getWidth(), src.getHeight()));
+        return frame;
+    }
 
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+    /** {@inheritDoc} */
+    @Override
+    public void render(BufferedImage src, BufferedImage dst, float progress, BufferedImage target) {
+        if (exactBlending) {
+            super.render(src, dst, progress, target);
+        } else {
+            renderBand(src, dst, progress, target, new Rectangle(0, 0,
+                    Math.min(src.getWidth(), target.getWidth()), Math.min(src.getHeight(), target.getHeight())));
+        }
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void renderBand(BufferedImage src, BufferedImage dst, float progress, BufferedImage frame, Rectangle band) {
+        // Images whose pixels can't be read or written in the form Java2D composites them are composited by Java2D
+        if (exactBlending || !isBlendable(src) || !isBlendable(dst) ||
+                !Pixels.isPremultipliedArgb(frame) && frame.getType() != BufferedImage.TYPE_INT_ARGB) {
+            super.renderBand(src, dst, progress, frame, band);
+            return;
+        }
+
+        boolean srcPremultiplied = Pixels.isPremultipliedArgb(src);
+        boolean dstPremultiplied = Pixels.isPremultipliedArgb(dst);
+        boolean framePremultiplied = Pixels.isPremultipliedArgb(frame);
+        CrossFadeKernel kernel = new CrossFadeKernel(progress, framePremultiplied);
+        int[] srcRow = new int[band.width];
+        int[] dstRow = new int[band.width];
+
+        // Fade out the from image while fading in the to image, reading and writing each pixel once
+        for (int y = band.y; y < band.y + band.height; y++) {
+            readRow(src, band.x, y, band.width, srcRow);
+            readRow(dst, band.x, y, band.width, dstRow);
+            kernel.blend(srcRow, srcPremultiplied, dstRow, dstPremultiplied, srcRow, band.width);
+
+            if (framePremultiplied) {
+                Pixels.writePremultipliedRow(frame, band.x, y, band.width, srcRow);
+            } else {
+                Pixels.writeRow(frame, band.x, y, band.width, srcRow);
+            }
+        }
+    }
+
+    /**
+     * Draws the frame by compositing the destination and source images over the graphics context with Java2D; thus
+     * frames drawn this way are always blended exactly (see {@link #setExactBlending(boolean)}).
+     */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
         // Fade in the to image
         g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, progress));
-        g.drawImage(dst, 0, 0, null);
+        Images.draw(g, dst, 0, 0);
 
         // Fade out the from image
         g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (1.0f - progress)));
-        g.drawImage(src, 0, 0, null);
+        Images.draw(g, src, 0, 0);
+    }
 
-        return frame;
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isBandRenderable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object getParameterKey() {
+        return exactBlending;
+    }
+
+    /**
+     * Determines whether exact blending is enabled; see {@link #setExactBlending(boolean)}.
+     *
+     * @return True if exact blending is enabled; false otherwise.
+     */
+    public boolean isExactBlending() {
+        return exactBlending;
+    }
+
+    /**
+     * Enables or disables exact blending. By default, frames are produced by a single-pass blend that reproduces
+     * Java2D's {@code AlphaComposite.SRC_OVER} arithmetic, including its rounding, and so is identical to compositing
+     * the two images with Java2D (to within a level per channel where an image is a translucent solid color; see
+     * {@link com.defano.jsegue.SegueBuilder#withSource(java.awt.Paint)}). Off-heap frames match Java2D's output for
+     * the equivalent {@code TYPE_INT_ARGB_PRE} frame; Java2D composites off-heap images themselves through an
+     * intermediate conversion that may differ by a few levels. Frames of other formats, and images premultiplied in any
+     * other format, are always composited by Java2D. When enabled, every frame is composited by Java2D (in two
+     * passes).
+     *
+     * @param exactBlending True to enable exact blending
+     */
+    public void setExactBlending(boolean exactBlending) {
+        this.exactBlending = exactBlending;
+    }
+
+    private static boolean isBlendable(BufferedImage image) {
+        return Pixels.isPremultipliedArgb(image) || !image.isAlphaPremultiplied();
+    }
+
+    private static void readRow(BufferedImage image, int x, int y, int width, int[] pixels) {
+        if (Pixels.isPremultipliedArgb(image)) {
+            Pixels.readPremultipliedRow(image, x, y, width, pixels);
+        } else {
+            Pixels.readRow(image, x, y, width, pixels);
+        }
     }
 }
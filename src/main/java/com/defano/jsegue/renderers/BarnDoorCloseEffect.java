@@ -3,7 +3,6 @@ package com.defano.jsegue.renderers;
 import com.defano.jsegue.AnimatedSegue;
 
 import java.awt.*;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 
 /**
@@ -14,33 +13,28 @@ public class BarnDoorCloseEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+        return drawFrame(src, dst, progress);
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
         // Calculate width of the door opening
         int opening = src.getWidth() - (int) (src.getWidth() * progress);
         opening = opening < 1 ? 1 : opening;
 
         // Mask the from image, grabbing the center-most portion the width of the opening
         BufferedImage center = src.getSubimage((src.getWidth() / 2) - (opening / 2), 0, opening, src.getHeight());
-        g.drawImage(center, (src.getWidth() / 2) - (opening / 2), 0, null);
+        Images.draw(g, center, (src.getWidth() / 2) - (opening / 2), 0);
 
         // Subdivide the left and right sides to the to image
         BufferedImage leftSide = dst.getSubimage(0,0, dst.getWidth() / 2, dst.getHeight());
         BufferedImage rightSide = dst.getSubimage(dst.getWidth() / 2, 0, dst.getWidth() / 2, dst.getHeight());
 
         // Translate and draw the left "door"
-        AffineTransform leftTranslate = new AffineTransform();
-        leftTranslate.translate(-(opening / 2), 0);
-        g.setTransform(leftTranslate);
-        g.drawImage(leftSide, 0, 0, null);
+        Images.draw(g, leftSide, -(opening / 2), 0);
 
         // Translate and draw the right "door"
-        AffineTransform rightTranslate = new AffineTransform();
-        rightTranslate.translate(opening / 2, 0);
-        g.setTransform(rightTranslate);
-        g.drawImage(rightSide, src.getWidth() / 2, 0, null);
-
-        return frame;
+        Images.draw(g, rightSide, src.getWidth() / 2 + opening / 2, 0);
     }
 }
@@ -3,6 +3,7 @@ package com.defano.jsegue.renderers;
 import com.defano.jsegue.AnimatedSegue;
 
 import java.awt.*;
+import java.awt.geom.Area;
 import java.awt.image.BufferedImage;
 
 /**
@@ -15,36 +16,84 @@ public class BlindsEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+        return drawFrame(src, dst, progress);
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
         int louverHeight = src.getHeight() / getLouverCount();
         int louverOpening = (int) (louverHeight * progress);
         louverOpening = louverOpening < 1 ? 1 : louverOpening;
 
-        // Draw the source image on the canvas
-        g.drawImage(src, 0, 0, null);
-
-        // Then, render each louver of the dst image
+        // Gather the opening of each louver through which the dst image is visible
+        Rectangle clip = g.getClipBounds();
+        Area openings = new Area();
         for (int y = 0; y < src.getHeight(); y += louverHeight) {
             int thisLouverHeight = (y + louverOpening) >= dst.getHeight() ? dst.getHeight() - y : louverOpening;
-            BufferedImage louver = dst.getSubimage(0, y, dst.getWidth(), thisLouverHeight);
 
-            Graphics2D lg = louver.createGraphics();
-
-            if (!isOverlay()) {
-                // Remove louver opening from src image
-                g.setComposite(AlphaComposite.getInstance(AlphaComposite.DST_OUT));
-                g.fillRect(0, y, dst.getWidth(), thisLouverHeight);
-                g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER));
+            // Skip louvers that fall outside of the region being drawn
+            if (clip != null && (y >= clip.y + clip.height || y + thisLouverHeight <= clip.y)) {
+                continue;
             }
 
-            g.drawImage(louver, 0, y, null);
-            lg.dispose();
+            openings.add(new Area(new Rectangle(0, y, dst.getWidth(), thisLouverHeight)));
+        }
+
+        // Draw the source image on the canvas, except through the louver openings (unless overlaying)
+        Graphics2D srcGraphics = isOverlay() ?
+                (Graphics2D) g.create() :
+                Clipping.excluding(g, src.getWidth(), src.getHeight(), openings);
+        Images.draw(srcGraphics, src, 0, 0);
+        srcGraphics.dispose();
+
+        // Then, render the dst image through the louvers
+        Graphics2D dstGraphics = Clipping.including(g, openings);
+        Images.draw(dstGraphics, dst, 0, 0);
+        dstGraphics.dispose();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Shape getDamage(int width, int height, float fromProgress, float toProgress) {
+        int louverHeight = height / getLouverCount();
+        if (louverHeight < 1) {
+            return super.getDamage(width, height, fromProgress, toProgress);
+        }
+
+        int fromOpening = Math.max(1, (int) (louverHeight * fromProgress));
+        int toOpening = Math.max(1, (int) (louverHeight * toProgress));
+
+        // Only the portion of each louver that opened (or closed) between frames has changed
+        Area damage = new Area();
+        for (int y = 0; y < height; y += louverHeight) {
+            int fromHeight = Math.min(fromOpening, height - y);
+            int toHeight = Math.min(toOpening, height - y);
+
+            if (fromHeight != toHeight) {
+                damage.add(new Area(new Rectangle(0, y + Math.min(fromHeight, toHeight), width, Math.abs(toHeight - fromHeight))));
+            }
         }
 
-        g.dispose();
-        return frame;
+        return damage;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isDeltaRenderable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isBandRenderable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object getParameterKey() {
+        return louverCount;
     }
 
     public int getLouverCount() {
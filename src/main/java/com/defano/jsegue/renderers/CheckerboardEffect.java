@@ -3,6 +3,7 @@ package com.defano.jsegue.renderers;
 import com.defano.jsegue.AnimatedSegue;
 
 import java.awt.*;
+import java.awt.geom.Area;
 import java.awt.image.BufferedImage;
 
 /**
@@ -15,59 +16,115 @@ public class CheckerboardEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
+        return drawFrame(src, dst, progress);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
+        drawChecks(src, dst, getOddProgress(progress), getEvenProgress(progress), g);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isBandRenderable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object getParameterKey() {
+        return checkerboardSize;
+    }
 
-        // Render odd squares...
-        if (progress < .5) {
-            return renderChecks(src, dst, progress * 2, 0);
+    /** {@inheritDoc} */
+    @Override
+    protected Shape getDamage(int width, int height, float fromProgress, float toProgress) {
+        int squareSize = height / getCheckerboardSize();
+        if (squareSize < 1) {
+            return super.getDamage(width, height, fromProgress, toProgress);
         }
 
-        // ... then render even squares
-        else {
-            return renderChecks(src, dst, 1f, (progress - .5f) * 2);
+        // Only the portion of each square that opened (or closed) between frames has changed
+        Area damage = new Area();
+        boolean oddSquare = false;
+
+        for (int y = 0; y < height; y += squareSize) {
+            for (int x = 0; x < width; x += squareSize) {
+                oddSquare = !oddSquare;
+
+                int fromOpening = getSquareOpening(squareSize, height - y, oddSquare ? getOddProgress(fromProgress) : getEvenProgress(fromProgress));
+                int toOpening = getSquareOpening(squareSize, height - y, oddSquare ? getOddProgress(toProgress) : getEvenProgress(toProgress));
+
+                if (fromOpening != toOpening) {
+                    int thisSquareWidth = Math.min(squareSize, width - x);
+                    damage.add(new Area(new Rectangle(x, y + Math.min(fromOpening, toOpening), thisSquareWidth, Math.abs(toOpening - fromOpening))));
+                }
+            }
         }
+
+        return damage;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isDeltaRenderable() {
+        return true;
     }
 
-    private BufferedImage renderChecks(BufferedImage src, BufferedImage dst, float oddProgress, float evenProgress) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+    // Odd squares open during the first half of the animation...
+    private float getOddProgress(float progress) {
+        return progress < .5 ? progress * 2 : 1f;
+    }
+
+    // ... then even squares open during the second half
+    private float getEvenProgress(float progress) {
+        return progress < .5 ? 0 : (progress - .5f) * 2;
+    }
 
+    private int getSquareOpening(int squareSize, int remainingHeight, float squareProgress) {
+        int squareOpening = (int) (squareSize * squareProgress);
+        return squareOpening < 1 ? 0 : Math.min(squareOpening, remainingHeight);
+    }
+
+    private void drawChecks(BufferedImage src, BufferedImage dst, float oddProgress, float evenProgress, Graphics2D g) {
         int squareSize = src.getHeight() / getCheckerboardSize();
+        Rectangle clip = g.getClipBounds();
 
-        // Draw the source image on the canvas
-        g.drawImage(src, 0, 0, null);
+        // When overlaying, draw the source image on the canvas beneath every square
+        if (isOverlay()) {
+            Images.draw(g, src, 0, 0);
+        }
 
         boolean oddSquare = false;
 
-        // Then, render each square of the dst image
+        // Then, render each square: the dst image in its opening and (unless overlaying) the src image in the rest
         for (int y = 0; y < src.getHeight(); y += squareSize) {
             for (int x = 0; x < src.getWidth(); x += squareSize) {
 
                 oddSquare = !oddSquare;     // Odd or even square?
 
-                int squareOpening = (int) (squareSize *(oddSquare ? oddProgress : evenProgress));
-                if (squareOpening < 1) continue;
-
-                // Special case: right-most square may exceed screen width
+                // Special case: right-most and bottom-most squares may exceed screen bounds
                 int thisSquareWidth = (x + squareSize) >= dst.getWidth() ? dst.getWidth() - x : squareSize;
-                int thisSquareHeight = (y + squareOpening) >= dst.getHeight() ? dst.getHeight() - y : squareOpening;
+                int thisSquareHeight = (y + squareSize) >= dst.getHeight() ? dst.getHeight() - y : squareSize;
 
-                BufferedImage square = dst.getSubimage(x, y, thisSquareWidth, thisSquareHeight);
-                Graphics2D lg = square.createGraphics();
+                int squareOpening = (int) (squareSize *(oddSquare ? oddProgress : evenProgress));
+                squareOpening = squareOpening < 1 ? 0 : Math.min(squareOpening, thisSquareHeight);
+
+                // Skip squares that fall outside of the region being drawn
+                if (clip != null && (y >= clip.y + clip.height || y + thisSquareHeight <= clip.y)) continue;
 
-                if (!isOverlay()) {
-                    // Remove square from src
-                    g.setComposite(AlphaComposite.getInstance(AlphaComposite.DST_OUT));
-                    g.fillRect(x, y, thisSquareWidth, thisSquareHeight);
-                    g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER));
+                if (!isOverlay() && squareOpening < thisSquareHeight) {
+                    BufferedImage closed = src.getSubimage(x, y + squareOpening, thisSquareWidth, thisSquareHeight - squareOpening);
+                    Images.draw(g, closed, x, y + squareOpening);
                 }
 
-                g.drawImage(square, x, y, null);
-                lg.dispose();
+                if (squareOpening > 0) {
+                    BufferedImage square = dst.getSubimage(x, y, thisSquareWidth, squareOpening);
+                    Images.draw(g, square, x, y);
+                }
             }
         }
-
-        g.dispose();
-        return frame;
     }
 
     public int getCheckerboardSize() {
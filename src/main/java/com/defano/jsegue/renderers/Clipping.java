@@ -0,0 +1,45 @@
+package com.defano.jsegue.renderers;
+
+import java.awt.*;
+import java.awt.geom.Area;
+
+/**
+ * Utilities for masking regions of a frame with clipping, rather than by erasing pixels already drawn (i.e., with
+ * {@code DST_OUT} compositing), so that frames can be drawn directly over existing content.
+ */
+final class Clipping {
+
+    private Clipping() {
+    }
+
+    /**
+     * Creates a copy of a graphics context clipped to exclude a region of a frame.
+     *
+     * @param g        The graphics context to copy; not modified
+     * @param width    The width of the frame
+     * @param height   The height of the frame
+     * @param excluded The region of the frame in which the copy should not draw
+     * @return A new graphics context, which the caller must dispose.
+     */
+    static Graphics2D excluding(Graphics2D g, int width, int height, Shape excluded) {
+        Area outside = new Area(new Rectangle(0, 0, width, height));
+        outside.subtract(new Area(excluded));
+
+        Graphics2D clipped = (Graphics2D) g.create();
+        clipped.clip(outside);
+        return clipped;
+    }
+
+    /**
+     * Creates a copy of a graphics context clipped to a region of a frame.
+     *
+     * @param g        The graphics context to copy; not modified
+     * @param included The region of the frame to which the copy should draw
+     * @return A new graphics context, which the caller must dispose.
+     */
+    static Graphics2D including(Graphics2D g, Shape included) {
+        Graphics2D clipped = (Graphics2D) g.create();
+        clipped.clip(included);
+        return clipped;
+    }
+}
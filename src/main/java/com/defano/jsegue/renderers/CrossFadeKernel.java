@@ -0,0 +1,194 @@
+package com.defano.jsegue.renderers;
+
+/**
+ * A single-pass cross-fade of two rows of ARGB pixels; equivalent to drawing the destination with {@code SRC_OVER} at
+ * alpha = progress onto a transparent frame, then drawing the source over it at alpha = 1 - progress, but reading each
+ * input pixel and writing each output pixel exactly once.
+ * <p>
+ * Both passes are computed with the same 8-bit multiply and divide arithmetic, and the same intermediate rounding, as
+ * Java2D's software compositing loops for packed ARGB pixels, so the results are identical to Java2D's output for
+ * pixels of the same form.
+ */
+final class CrossFadeKernel {
+
+    private static final byte[] DIV8 = new byte[256 * 256];
+
+    static {
+        for (int a = 1; a < 256; a++) {
+            long increment = ((0xffL << 24) + a / 2) / a;
+            long value = 1 << 23;
+            for (int b = 0; b < 256; b++) {
+                DIV8[(a << 8) | b] = (byte) (b < a ? value >>> 24 : 0xff);
+                value += increment;
+            }
+        }
+    }
+
+    private final boolean premultiplied;
+    private final int srcExtraAlpha;
+    private final int dstExtraAlpha;
+    private final int opaqueA;
+    private final int[] fadedSrc = new int[256];
+    private final int[] fadedDst = new int[256];
+    private final int[] srcTerm = new int[256];
+    private final int[] dstTerm = new int[256];
+    private final int[] result = new int[256];
+
+    /**
+     * Creates a kernel that cross-fades pixels at the given progress.
+     *
+     * @param progress      The progress of the cross-fade; 0 produces the source, 1 the destination
+     * @param premultiplied True if the blended pixels are to be premultiplied, as when blending into a frame that
+     *                      stores premultiplied pixels
+     */
+    CrossFadeKernel(float progress, boolean premultiplied) {
+        this.premultiplied = premultiplied;
+        this.srcExtraAlpha = getExtraAlpha(1.0f - progress);
+        this.dstExtraAlpha = getExtraAlpha(progress);
+        this.opaqueA = srcExtraAlpha == 0 ? dstExtraAlpha : srcExtraAlpha + mul8(0xff - srcExtraAlpha, dstExtraAlpha);
+
+        // Where each pixel is either opaque or transparent (by far the most common case), each channel of the result
+        // depends only on that channel of either pixel, and its alpha on neither; tabulate both passes' arithmetic
+        int fadedDstWeight = premultiplied ? 0xff - srcExtraAlpha : mul8(0xff - srcExtraAlpha, dstExtraAlpha);
+
+        for (int c = 0; c < 256; c++) {
+            fadedSrc[c] = fade(c, srcExtraAlpha, premultiplied);
+            fadedDst[c] = fade(c, dstExtraAlpha, premultiplied);
+            srcTerm[c] = mul8(srcExtraAlpha, c);
+            dstTerm[c] = srcExtraAlpha == 0 ? fadedDst[c] : mul8(fadedDstWeight, fadedDst[c]);
+            result[c] = !premultiplied && opaqueA > 0 && opaqueA < 0xff ? div8(opaqueA, c) : c;
+        }
+    }
+
+    /**
+     * Cross-fades a row of source pixels with a row of destination pixels.
+     *
+     * @param src              The source pixels (ARGB)
+     * @param srcPremultiplied True if the source pixels are premultiplied
+     * @param dst              The destination pixels (ARGB)
+     * @param dstPremultiplied True if the destination pixels are premultiplied
+     * @param out              The array receiving the blended pixels (ARGB); may be the same as src or dst
+     * @param length           The number of pixels to blend
+     */
+    void blend(int[] src, boolean srcPremultiplied, int[] dst, boolean dstPremultiplied, int[] out, int length) {
+        int[] fadedSrc = this.fadedSrc;
+        int[] fadedDst = this.fadedDst;
+        int[] srcTerm = this.srcTerm;
+        int[] dstTerm = this.dstTerm;
+        int[] result = this.result;
+
+        for (int i = 0; i < length; i++) {
+            int srcPixel = src[i];
+            int dstPixel = dst[i];
+            int srcA = srcPixel >>> 24;
+            int dstA = dstPixel >>> 24;
+
+            if (srcA == 0xff && dstA == 0xff) {
+                out[i] = (opaqueA << 24) |
+                        (result[srcTerm[(srcPixel >> 16) & 0xff] + dstTerm[(dstPixel >> 16) & 0xff]] << 16) |
+                        (result[srcTerm[(srcPixel >> 8) & 0xff] + dstTerm[(dstPixel >> 8) & 0xff]] << 8) |
+                        result[srcTerm[srcPixel & 0xff] + dstTerm[dstPixel & 0xff]];
+            } else if (srcA == 0xff && dstA == 0) {
+                out[i] = (srcExtraAlpha << 24) | (fadedSrc[(srcPixel >> 16) & 0xff] << 16) |
+                        (fadedSrc[(srcPixel >> 8) & 0xff] << 8) | fadedSrc[srcPixel & 0xff];
+            } else if (srcA == 0 && dstA == 0xff) {
+                out[i] = (dstExtraAlpha << 24) | (fadedDst[(dstPixel >> 16) & 0xff] << 16) |
+                        (fadedDst[(dstPixel >> 8) & 0xff] << 8) | fadedDst[dstPixel & 0xff];
+            } else if (srcA == 0 && dstA == 0) {
+                out[i] = 0;
+            } else {
+                int fadedPixel = over(dstPixel, dstPremultiplied, 0, premultiplied, dstExtraAlpha);
+                out[i] = over(srcPixel, srcPremultiplied, fadedPixel, premultiplied, srcExtraAlpha);
+            }
+        }
+    }
+
+    /**
+     * Mixes a single source pixel with a destination pixel in the given proportion; that is, interpolates linearly
+     * between the two (in premultiplied space, so that translucent pixels mix without fringing).
+     *
+     * @param src           The source pixel
+     * @param dst           The destination pixel
+     * @param weight        The proportion of the destination, between 0 (the source) and 255 (the destination)
+     * @param premultiplied True if the pixels are premultiplied ARGB; false if they are non-premultiplied ARGB
+     * @return The mixed pixel, in the same form as the inputs
+     */
+    static int mix(int src, int dst, int weight, boolean premultiplied) {
+        // Opaque pixels are the same whether premultiplied or not
+        if (premultiplied || (src & dst) >>> 24 == 0xff) {
+            return scale(src, 0xff - weight) + scale(dst, weight);
+        }
+
+        return Pixels.unpremultiply(scale(Pixels.premultiply(src), 0xff - weight) + scale(Pixels.premultiply(dst), weight));
+    }
+
+    private static int scale(int pixel, int weight) {
+        int redBlue = (pixel & 0x00ff00ff) * weight + 0x00800080;
+        int alphaGreen = ((pixel >>> 8) & 0x00ff00ff) * weight + 0x00800080;
+
+        return (((redBlue + ((redBlue >>> 8) & 0x00ff00ff)) >>> 8) & 0x00ff00ff) |
+                ((alphaGreen + ((alphaGreen >>> 8) & 0x00ff00ff)) & 0xff00ff00);
+    }
+
+    /**
+     * Gets the 8-bit alpha by which Java2D scales pixels drawn with an {@code AlphaComposite} of the given alpha.
+     */
+    private static int getExtraAlpha(float alpha) {
+        return (int) (alpha * 255.0 + 0.5);
+    }
+
+    /**
+     * Gets a channel of an opaque pixel composited over a transparent one with {@code SRC_OVER} at the given (8-bit)
+     * extra alpha.
+     */
+    private static int fade(int channel, int extraAlpha, boolean premultiplied) {
+        if (extraAlpha == 0xff) {
+            return channel;
+        }
+
+        return premultiplied ? mul8(extraAlpha, channel) : div8(extraAlpha, mul8(extraAlpha, channel));
+    }
+
+    /**
+     * Composites a pixel over another with {@code SRC_OVER} at the given (8-bit) extra alpha.
+     */
+    private static int over(int srcPixel, boolean srcPremultiplied, int dstPixel, boolean dstPremultiplied, int extraAlpha) {
+        int srcA = mul8(extraAlpha, srcPixel >>> 24);
+
+        if (srcA == 0) {
+            return dstPixel;
+        } else if (srcA == 0xff) {
+            return srcPixel;
+        }
+
+        // Premultiplied source channels already carry their own alpha; non-premultiplied destination channels don't
+        int srcF = srcPremultiplied ? extraAlpha : srcA;
+        int dstF = dstPremultiplied ? 0xff - srcA : mul8(0xff - srcA, dstPixel >>> 24);
+        int resA = srcA + (dstPremultiplied ? mul8(dstF, dstPixel >>> 24) : dstF);
+        int resR = mul8(srcF, (srcPixel >> 16) & 0xff) + mul8(dstF, (dstPixel >> 16) & 0xff);
+        int resG = mul8(srcF, (srcPixel >> 8) & 0xff) + mul8(dstF, (dstPixel >> 8) & 0xff);
+        int resB = mul8(srcF, srcPixel & 0xff) + mul8(dstF, dstPixel & 0xff);
+
+        if (!dstPremultiplied && resA < 0xff) {
+            resR = div8(resA, resR);
+            resG = div8(resA, resG);
+            resB = div8(resA, resB);
+        }
+
+        return (resA << 24) | (resR << 16) | (resG << 8) | resB;
+    }
+
+    /**
+     * Multiplies two 8-bit values (scaled so that 255 = 1.0); computes the same values as Java2D's multiply table.
+     */
+    private static int mul8(int a, int b) {
+        return (a * b * 0x10101 + (1 << 23)) >>> 24;
+    }
+
+    /**
+     * Divides an 8-bit value by another, as Java2D's divide table does: b / a, clamped to 255.
+     */
+    private static int div8(int a, int b) {
+        return DIV8[(a << 8) | b] & 0xff;
+    }
+}
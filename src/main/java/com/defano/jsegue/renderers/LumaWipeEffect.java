@@ -0,0 +1,355 @@
+package com.defano.jsegue.renderers;
+
+import com.defano.jsegue.AnimatedSegue;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.Raster;
+import java.util.Arrays;
+
+/**
+ * Replaces the source with the destination pixel by pixel, in the order given by a grayscale transition map: darker
+ * pixels of the map switch first, lighter pixels last. Any transition can be described this way; see
+ * {@link TransitionMaps} for maps generated procedurally, or supply an image of your own (for example, loaded from a
+ * file). Maps of a different size than the frame are scaled to fit.
+ * <p>
+ * The pixels are ordered by threshold once per map and frame size; thereafter, each frame updates only those pixels
+ * whose threshold lies between an earlier frame's progress and this one's (plus, when the edge is soft, those within
+ * the edge). With frame buffering enabled (see {@link AnimatedSegue#setFrameBufferCount(int)}), frames are recycled
+ * and updated in place, so the cost of a frame is proportional to the change, not to the size of the frame; without
+ * it, every frame is a new image, and so costs at least a copy of every pixel. Source and destination pixels are
+ * captured the first time an image pair is rendered, so images must not be modified while they are being wiped.
+ */
+@SuppressWarnings("unused")
+public class LumaWipeEffect extends AnimatedSegue {
+
+    private BufferedImage transitionMap;
+    private float softness = 0f;
+
+    private BufferedImage orderedMap;
+    private int[] thresholds;
+    private int levelCount;
+    private ThresholdOrder wipeOrder;
+    private BufferedImage canvasSrc;
+    private BufferedImage canvasDst;
+    private int[] srcPixels;
+    private int[] dstPixels;
+    private int[] canvas;
+    private BufferedImage canvasImage;
+    private float canvasSoftness;
+    private int canvasLow;
+    private int canvasHigh;
+
+    /**
+     * Renders a frame by updating a recycled frame in place when frame buffering is enabled; see
+     * {@link AnimatedSegue#deltaFrame(BufferedImage, BufferedImage, float)}.
+     */
+    @Override
+    public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
+        return deltaFrame(src, dst, progress);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void render(BufferedImage src, BufferedImage dst, float progress, BufferedImage target) {
+        prepareCanvas(src, dst);
+        wipeCanvas(progress);
+
+        if (target.getType() == canvasImage.getType() && target.getWidth() == src.getWidth() &&
+                target.getHeight() == src.getHeight()) {
+            target.getRaster().setDataElements(0, 0, src.getWidth(), src.getHeight(), canvas);
+            return;
+        }
+
+        int width = Math.min(src.getWidth(), target.getWidth());
+        int[] row = new int[width];
+
+        for (int y = 0; y < Math.min(src.getHeight(), target.getHeight()); y++) {
+            System.arraycopy(canvas, y * src.getWidth(), row, 0, width);
+            writeRow(target, 0, y, width, row, canvasImage.isAlphaPremultiplied());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected synchronized void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
+        prepareCanvas(src, dst);
+        wipeCanvas(progress);
+
+        // The canvas image shares the canvas's pixels; drawing it copies them straight into the target
+        g.drawImage(canvasImage, 0, 0, null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void renderBand(BufferedImage src, BufferedImage dst, float progress, BufferedImage frame, Rectangle band) {
+        int width = src.getWidth();
+        int[] thresholds, srcPixels, dstPixels;
+        int levelCount;
+        boolean premultiplied;
+        float softness = this.softness;
+
+        synchronized (this) {
+            prepareCanvas(src, dst);
+            thresholds = this.thresholds;
+            srcPixels = this.srcPixels;
+            dstPixels = this.dstPixels;
+            levelCount = this.levelCount;
+            premultiplied = canvasImage.isAlphaPremultiplied();
+        }
+
+        Edge edge = new Edge(progress, softness, levelCount);
+        int[] row = new int[band.width];
+
+        for (int y = band.y; y < band.y + band.height; y++) {
+            for (int x = band.x; x < band.x + band.width; x++) {
+                int pixel = y * width + x;
+                row[x - band.x] = edge.getPixel(thresholds[pixel], srcPixels[pixel], dstPixels[pixel], premultiplied);
+            }
+
+            writeRow(frame, band.x, y, band.width, row, premultiplied);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isBandRenderable() {
+        return true;
+    }
+
+    /**
+     * Updates only those pixels at the wipe's edge in either frame, or between the two edges; see
+     * {@link AnimatedSegue#renderDelta(BufferedImage, BufferedImage, BufferedImage, float, float)}.
+     */
+    @Override
+    protected void renderDelta(BufferedImage src, BufferedImage dst, BufferedImage frame, float fromProgress, float toProgress) {
+        int[] thresholds, srcPixels, dstPixels, order;
+        int levelCount;
+        boolean premultiplied;
+        float softness = this.softness;
+
+        synchronized (this) {
+            prepareCanvas(src, dst);
+
+            // Frames of another format (or that aren't backed by an array of pixels) are redrawn in full
+            if (frame.getType() != canvasImage.getType() || frame.getWidth() != src.getWidth() ||
+                    !(frame.getRaster().getDataBuffer() instanceof DataBufferInt)) {
+                super.renderDelta(src, dst, frame, fromProgress, toProgress);
+                return;
+            }
+
+            thresholds = this.thresholds;
+            srcPixels = this.srcPixels;
+            dstPixels = this.dstPixels;
+            order = wipeOrder.getOrder();
+            levelCount = this.levelCount;
+            premultiplied = canvasImage.isAlphaPremultiplied();
+        }
+
+        Edge fromEdge = new Edge(fromProgress, softness, levelCount);
+        Edge toEdge = new Edge(toProgress, softness, levelCount);
+        int from = wipeOrder.countAtOrBelow(Math.min(fromEdge.lowLevel, toEdge.lowLevel) - 1);
+        int to = wipeOrder.countAtOrBelow(Math.max(fromEdge.highLevel, toEdge.highLevel) - 1);
+        int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+
+        for (int i = from; i < to; i++) {
+            int pixel = order[i];
+            pixels[pixel] = toEdge.getPixel(thresholds[pixel], srcPixels[pixel], dstPixels[pixel], premultiplied);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isDeltaRenderable() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Object getParameterKey() {
+        return Arrays.asList(transitionMap, softness);
+    }
+
+    /**
+     * Gets the transition map; see {@link #setTransitionMap(BufferedImage)}.
+     *
+     * @return The transition map, or null if the default (diagonal) map is used.
+     */
+    public BufferedImage getTransitionMap() {
+        return transitionMap;
+    }
+
+    /**
+     * Sets the transition map that determines the order in which pixels switch from the source to the destination.
+     * Maps are read as grayscale: 8- and 16-bit grayscale images ({@code TYPE_BYTE_GRAY} and
+     * {@code TYPE_USHORT_GRAY}) provide 256 and 65536 threshold levels respectively; the luminance of any other image
+     * provides 256 levels. The map must not be modified while in use.
+     *
+     * @param transitionMap The transition map, or null to wipe diagonally from the top-left corner (the default)
+     */
+    public void setTransitionMap(BufferedImage transitionMap) {
+        this.transitionMap = transitionMap;
+    }
+
+    /**
+     * Gets the softness of the wipe's edge; see {@link #setSoftness(float)}.
+     *
+     * @return The softness, between 0.0 and 1.0.
+     */
+    public float getSoftness() {
+        return softness;
+    }
+
+    /**
+     * Sets the softness of the wipe's edge: the fraction of the map's range of thresholds across which pixels blend
+     * gradually from the source to the destination, rather than switching abruptly. Zero (the default) produces a
+     * hard edge.
+     *
+     * @param softness The softness, between 0.0 and 1.0
+     */
+    public void setSoftness(float softness) {
+        this.softness = Math.max(0f, Math.min(1.0f, softness));
+    }
+
+    private void prepareCanvas(BufferedImage src, BufferedImage dst) {
+        int width = src.getWidth();
+        int height = src.getHeight();
+
+        if (wipeOrder == null || orderedMap != transitionMap || !wipeOrder.isSize(width, height)) {
+            BufferedImage map = transitionMap == null ? TransitionMaps.diagonal(width, height) : transitionMap;
+            levelCount = getLevelCount(map);
+            thresholds = getThresholds(map, width, height);
+            wipeOrder = ThresholdOrder.sort(width, height, thresholds, levelCount);
+            orderedMap = transitionMap;
+            canvasSrc = null;
+        }
+
+        if (src != canvasSrc || dst != canvasDst) {
+
+            // Premultiplied images (see SegueBuilder#withImageType) are wiped without converting their pixels
+            if (Pixels.isPremultipliedArgb(src) && Pixels.isPremultipliedArgb(dst)) {
+                canvasImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+                srcPixels = (int[]) src.getRaster().getDataElements(0, 0, width, height, null);
+                dstPixels = (int[]) dst.getRaster().getDataElements(0, 0, width, height, null);
+            } else {
+                canvasImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                srcPixels = src.getRGB(0, 0, width, height, null, 0, width);
+                dstPixels = dst.getRGB(0, 0, width, height, null, 0, width);
+            }
+
+            canvas = ((DataBufferInt) canvasImage.getRaster().getDataBuffer()).getData();
+            System.arraycopy(srcPixels, 0, canvas, 0, canvas.length);
+            canvasSrc = src;
+            canvasDst = dst;
+            canvasLow = canvasHigh = 0;
+            canvasSoftness = softness;
+        }
+    }
+
+    private void wipeCanvas(float progress) {
+        Edge edge = new Edge(progress, softness, levelCount);
+        int[] order = wipeOrder.getOrder();
+        boolean premultiplied = canvasImage.isAlphaPremultiplied();
+
+        // Pixels ordered before low show the destination, those from high on the source, and those between blend
+        int low = wipeOrder.countAtOrBelow(edge.lowLevel - 1);
+        int high = wipeOrder.countAtOrBelow(edge.highLevel - 1);
+
+        // A change of softness moves every blended pixel; otherwise, only pixels that were or are at the edge change
+        int from = softness == canvasSoftness ? Math.min(low, canvasLow) : 0;
+        int to = softness == canvasSoftness ? Math.max(high, canvasHigh) : order.length;
+
+        for (int i = from; i < to; i++) {
+            int pixel = order[i];
+            canvas[pixel] = i < low ? dstPixels[pixel] :
+                    i >= high ? srcPixels[pixel] :
+                    edge.getPixel(thresholds[pixel], srcPixels[pixel], dstPixels[pixel], premultiplied);
+        }
+
+        canvasLow = low;
+        canvasHigh = high;
+        canvasSoftness = softness;
+    }
+
+    private static void writeRow(BufferedImage image, int x, int y, int width, int[] row, boolean premultiplied) {
+        if (premultiplied) {
+            Pixels.writePremultipliedRow(image, x, y, width, row);
+        } else {
+            Pixels.writeRow(image, x, y, width, row);
+        }
+    }
+
+    private static int getLevelCount(BufferedImage map) {
+        if (map.getType() == BufferedImage.TYPE_BYTE_GRAY || map.getType() == BufferedImage.TYPE_USHORT_GRAY) {
+            return 1 << map.getSampleModel().getSampleSize(0);
+        }
+
+        return 256;
+    }
+
+    /**
+     * Samples the threshold of each pixel of a frame from a transition map, scaling the map (by nearest neighbor) to
+     * the size of the frame.
+     */
+    private static int[] getThresholds(BufferedImage map, int width, int height) {
+        int mapWidth = map.getWidth();
+        int mapHeight = map.getHeight();
+        boolean gray = map.getType() == BufferedImage.TYPE_BYTE_GRAY || map.getType() == BufferedImage.TYPE_USHORT_GRAY;
+        Raster raster = map.getRaster();
+
+        int[] mapRow = new int[mapWidth];
+        int[] thresholds = new int[width * height];
+
+        for (int y = 0; y < height; y++) {
+            int mapY = (int) ((long) y * mapHeight / height);
+
+            if (gray) {
+                raster.getSamples(0, mapY, mapWidth, 1, 0, mapRow);
+            } else {
+                map.getRGB(0, mapY, mapWidth, 1, mapRow, 0, mapWidth);
+                for (int x = 0; x < mapWidth; x++) {
+                    int pixel = mapRow[x];
+                    mapRow[x] = (((pixel >> 16) & 0xff) * 77 + ((pixel >> 8) & 0xff) * 150 + (pixel & 0xff) * 29) >> 8;
+                }
+            }
+
+            for (int x = 0; x < width; x++) {
+                thresholds[y * width + x] = mapRow[(int) ((long) x * mapWidth / width)];
+            }
+        }
+
+        return thresholds;
+    }
+
+    /**
+     * The position of the wipe's edge at a point of progress. The edge sweeps from below the lowest threshold (at
+     * progress 0.0, when every pixel shows the source) to above the highest (at 1.0, when every pixel shows the
+     * destination); pixels whose threshold is below the edge's low level show the destination, those at or above its
+     * high level show the source, and those between blend the two in proportion to their distance from either level.
+     */
+    private static class Edge {
+        private final int lowLevel;
+        private final int highLevel;
+        private final float highPosition;
+        private final float weightPerLevel;
+
+        Edge(float progress, float softness, int levelCount) {
+            highPosition = progress * (1.0f + softness) * levelCount;
+            lowLevel = (int) Math.ceil(highPosition - softness * levelCount);
+            highLevel = (int) Math.ceil(highPosition);
+            weightPerLevel = softness == 0 ? 0 : 255f / (softness * levelCount);
+        }
+
+        int getPixel(int threshold, int srcPixel, int dstPixel, boolean premultiplied) {
+            if (threshold < lowLevel) {
+                return dstPixel;
+            } else if (threshold >= highLevel) {
+                return srcPixel;
+            }
+
+            int weight = Math.max(0, Math.min(0xff, Math.round((highPosition - threshold) * weightPerLevel)));
+            return CrossFadeKernel.mix(srcPixel, dstPixel, weight, premultiplied);
+        }
+    }
+}
@@ -2,30 +2,220 @@ package com.defano.jsegue.renderers;
 
 import com.defano.jsegue.AnimatedSegue;
 
+import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.util.Random;
 
 /**
  * Cross-dissolve from source to destination by randomly replacing source pixels with destination pixels.
+ * <p>
+ * The order in which pixels dissolve is computed once per frame size; thereafter, each frame updates only those pixels
+ * that changed since an earlier frame (or, when rendered in parallel bands, each band is computed directly from the
+ * per-pixel dissolve thresholds). With frame buffering enabled (see {@link AnimatedSegue#setFrameBufferCount(int)}),
+ * frames are recycled and updated in place, so the cost of a frame is proportional to the change, not to the size of
+ * the frame; without it, every frame is a new image, and so costs at least a copy of every pixel. Source and
+ * destination pixels are captured the first time an image pair is rendered, so images must not be modified while
+ * they are being dissolved.
  */
 @SuppressWarnings("unused")
 public class PixelDissolveEffect extends AnimatedSegue {
 
+    private static final int LEVELS = 101;
+
+    private int[] thresholds;
+    private ThresholdOrder dissolveOrder;
+    private BufferedImage canvasSrc;
+    private BufferedImage canvasDst;
+    private int[] srcPixels;
+    private int[] dstPixels;
+    private int[] canvas;
+    private BufferedImage canvasImage;
+    private int dissolved;
+
+    /**
+     * Renders a frame by updating a recycled frame in place when frame buffering is enabled; see
+     * {@link AnimatedSegue#deltaFrame(BufferedImage, BufferedImage, float)}.
+     */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
+        return deltaFrame(src, dst, progress);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void render(BufferedImage src, BufferedImage dst, float progress, BufferedImage target) {
+        prepareCanvas(src, dst);
+        dissolveCanvas(progress);
+
+        if (target.getType() == canvasImage.getType() && target.getWidth() == src.getWidth() &&
+                target.getHeight() == src.getHeight()) {
+            target.getRaster().setDataElements(0, 0, src.getWidth(), src.getHeight(), canvas);
+            return;
+        }
+
+        int width = Math.min(src.getWidth(), target.getWidth());
+        int[] row = new int[width];
+
+        for (int y = 0; y < Math.min(src.getHeight(), target.getHeight()); y++) {
+            System.arraycopy(canvas, y * src.getWidth(), row, 0, width);
+            writeRow(target, 0, y, width, row, canvasImage.isAlphaPremultiplied());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected synchronized void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
+        prepareCanvas(src, dst);
+        dissolveCanvas(progress);
+
+        // The canvas image shares the canvas's pixels; drawing it copies them straight into the target
+        g.drawImage(canvasImage, 0, 0, null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void renderBand(BufferedImage src, BufferedImage dst, float progress, BufferedImage frame, Rectangle band) {
+        int width = src.getWidth();
+        int[] thresholds, srcPixels, dstPixels;
+        boolean premultiplied;
+
+        synchronized (this) {
+            prepareCanvas(src, dst);
+            thresholds = this.thresholds;
+            srcPixels = this.srcPixels;
+            dstPixels = this.dstPixels;
+            premultiplied = canvasImage.isAlphaPremultiplied();
+        }
+
+        int level = Math.max(1, (int) (100.0 * progress));
+        int[] row = new int[band.width];
+
+        for (int y = band.y; y < band.y + band.height; y++) {
+            for (int x = band.x; x < band.x + band.width; x++) {
+                int pixel = y * width + x;
+                row[x - band.x] = thresholds[pixel] <= level ? dstPixels[pixel] : srcPixels[pixel];
+            }
+
+            writeRow(frame, band.x, y, band.width, row, premultiplied);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isBandRenderable() {
+        return true;
+    }
+
+    /**
+     * Dissolves (or restores) only those pixels whose threshold lies between the two points of progress; the cost of
+     * updating a frame is thus proportional to the distance between the two, not to the size of the frame.
+     */
+    @Override
+    protected void renderDelta(BufferedImage src, BufferedImage dst, BufferedImage frame, float fromProgress, float toProgress) {
+        int[] srcPixels, dstPixels, order;
+        int from, to;
+
+        synchronized (this) {
+            prepareCanvas(src, dst);
+
+            // Frames of another format (or that aren't backed by an array of pixels) are redrawn in full
+            if (frame.getType() != canvasImage.getType() || frame.getWidth() != src.getWidth() ||
+                    !(frame.getRaster().getDataBuffer() instanceof DataBufferInt)) {
+                super.renderDelta(src, dst, frame, fromProgress, toProgress);
+                return;
+            }
+
+            srcPixels = this.srcPixels;
+            dstPixels = this.dstPixels;
+            order = dissolveOrder.getOrder();
+            from = dissolveOrder.countAtOrBelow(Math.max(1, (int) (100.0 * fromProgress)));
+            to = dissolveOrder.countAtOrBelow(Math.max(1, (int) (100.0 * toProgress)));
+        }
+
+        int[] pixels = ((DataBufferInt) frame.getRaster().getDataBuffer()).getData();
+
+        for (int i = from; i < to; i++) {
+            pixels[order[i]] = dstPixels[order[i]];
+        }
+
+        for (int i = to; i < from; i++) {
+            pixels[order[i]] = srcPixels[order[i]];
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isDeltaRenderable() {
+        return true;
+    }
+
+    private void prepareCanvas(BufferedImage src, BufferedImage dst) {
+        int width = src.getWidth();
+        int height = src.getHeight();
+
+        if (dissolveOrder == null || !dissolveOrder.isSize(width, height)) {
+            thresholds = getThresholds(width, height);
+            dissolveOrder = ThresholdOrder.sort(width, height, thresholds, LEVELS);
+            canvasSrc = null;
+        }
+
+        if (src != canvasSrc || dst != canvasDst) {
+
+            // Premultiplied images (see SegueBuilder#withImageType) are dissolved without converting their pixels
+            if (Pixels.isPremultipliedArgb(src) && Pixels.isPremultipliedArgb(dst)) {
+                canvasImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+                srcPixels = (int[]) src.getRaster().getDataElements(0, 0, width, height, null);
+                dstPixels = (int[]) dst.getRaster().getDataElements(0, 0, width, height, null);
+            } else {
+                canvasImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+                srcPixels = src.getRGB(0, 0, width, height, null, 0, width);
+                dstPixels = dst.getRGB(0, 0, width, height, null, 0, width);
+            }
+
+            canvas = ((DataBufferInt) canvasImage.getRaster().getDataBuffer()).getData();
+            System.arraycopy(srcPixels, 0, canvas, 0, canvas.length);
+            canvasSrc = src;
+            canvasDst = dst;
+            dissolved = 0;
+        }
+    }
+
+    private static void writeRow(BufferedImage image, int x, int y, int width, int[] row, boolean premultiplied) {
+        if (premultiplied) {
+            Pixels.writePremultipliedRow(image, x, y, width, row);
+        } else {
+            Pixels.writeRow(image, x, y, width, row);
+        }
+    }
+
+    private void dissolveCanvas(float progress) {
+
+        // Replace (or restore) only the pixels whose threshold lies between the last frame's progress and this one's
+        int target = dissolveOrder.countAtOrBelow(Math.max(1, (int) (100.0 * progress)));
+        int[] order = dissolveOrder.getOrder();
+
+        for (; dissolved < target; dissolved++) {
+            canvas[order[dissolved]] = dstPixels[order[dissolved]];
+        }
+
+        for (; dissolved > target; dissolved--) {
+            canvas[order[dissolved - 1]] = srcPixels[order[dissolved - 1]];
+        }
+    }
+
+    private int[] getThresholds(int width, int height) {
 
-        // Random function must use a consistent seed at each render, otherwise pixels will "un-dissolve" adn appear to
-        // flicker
+        // Random function must use a consistent seed, otherwise pixels will "un-dissolve" and appear to flicker
         Random random = new Random(0);
 
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        for (int x = 0; x < src.getWidth(); x++) {
-            for (int y = 0; y < src.getHeight(); y++) {
-                int rgb = random.nextInt(101) <= Math.max(1, (int) (100.0 * progress)) ? dst.getRGB(x, y) : src.getRGB(x, y);
-                frame.setRGB(x, y, rgb);
+        int[] thresholds = new int[width * height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                thresholds[y * width + x] = random.nextInt(LEVELS);
             }
         }
 
-        return frame;
+        return thresholds;
     }
 }
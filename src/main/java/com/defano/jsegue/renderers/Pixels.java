@@ -0,0 +1,148 @@
+package com.defano.jsegue.renderers;
+
+import com.defano.jsegue.OffHeapImages;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Utilities for moving rows of pixels between images and int arrays in ARGB form (premultiplied or not), copying raw
+ * raster data wherever the image's layout allows and converting through the image's color model otherwise.
+ */
+final class Pixels {
+
+    private Pixels() {
+    }
+
+    /**
+     * Reads a row of pixels from an image as non-premultiplied ARGB values.
+     *
+     * @param image  The image to read
+     * @param x      The x coordinate of the first pixel
+     * @param y      The row to read
+     * @param width  The number of pixels to read
+     * @param pixels The array into which pixels are read, starting at index 0
+     */
+    static void readRow(BufferedImage image, int x, int y, int width, int[] pixels) {
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_ARGB:
+                image.getRaster().getDataElements(x, y, width, 1, pixels);
+                break;
+            case BufferedImage.TYPE_INT_RGB:
+                image.getRaster().getDataElements(x, y, width, 1, pixels);
+                for (int i = 0; i < width; i++) {
+                    pixels[i] |= 0xff000000;
+                }
+                break;
+            default:
+                image.getRGB(x, y, width, 1, pixels, 0, width);
+        }
+    }
+
+    /**
+     * Writes a row of non-premultiplied ARGB pixels into an image.
+     *
+     * @param image  The image to write
+     * @param x      The x coordinate of the first pixel
+     * @param y      The row to write
+     * @param width  The number of pixels to write
+     * @param pixels The pixels to write, starting at index 0
+     */
+    static void writeRow(BufferedImage image, int x, int y, int width, int[] pixels) {
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+            image.getRaster().setDataElements(x, y, width, 1, pixels);
+        } else {
+            image.setRGB(x, y, width, 1, pixels, 0, width);
+        }
+    }
+
+    /**
+     * Reads a row of pixels from an image as premultiplied ARGB values.
+     *
+     * @param image  The image to read
+     * @param x      The x coordinate of the first pixel
+     * @param y      The row to read
+     * @param width  The number of pixels to read
+     * @param pixels The array into which pixels are read, starting at index 0
+     */
+    static void readPremultipliedRow(BufferedImage image, int x, int y, int width, int[] pixels) {
+        if (isPremultipliedArgb(image)) {
+            image.getRaster().getDataElements(x, y, width, 1, pixels);
+        } else {
+            readRow(image, x, y, width, pixels);
+            for (int i = 0; i < width; i++) {
+                pixels[i] = premultiply(pixels[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes a row of premultiplied ARGB pixels into an image.
+     *
+     * @param image  The image to write
+     * @param x      The x coordinate of the first pixel
+     * @param y      The row to write
+     * @param width  The number of pixels to write
+     * @param pixels The pixels to write, starting at index 0; modified if the image is not premultiplied
+     */
+    static void writePremultipliedRow(BufferedImage image, int x, int y, int width, int[] pixels) {
+        if (isPremultipliedArgb(image)) {
+            image.getRaster().setDataElements(x, y, width, 1, pixels);
+        } else {
+            for (int i = 0; i < width; i++) {
+                pixels[i] = unpremultiply(pixels[i]);
+            }
+            writeRow(image, x, y, width, pixels);
+        }
+    }
+
+    /**
+     * Determines whether an image stores its pixels as premultiplied ARGB integers, and so can read and write them
+     * without conversion: a {@code TYPE_INT_ARGB_PRE} image or an off-heap image (see {@link OffHeapImages}).
+     *
+     * @param image The image
+     * @return True if the image's pixels are premultiplied ARGB integers
+     */
+    static boolean isPremultipliedArgb(BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_INT_ARGB_PRE || OffHeapImages.getStorage(image) != null;
+    }
+
+    /**
+     * Converts a non-premultiplied ARGB pixel to premultiplied form.
+     *
+     * @param pixel The non-premultiplied pixel
+     * @return The premultiplied pixel
+     */
+    static int premultiply(int pixel) {
+        int a = pixel >>> 24;
+        if (a == 0xff) {
+            return pixel;
+        } else if (a == 0) {
+            return 0;
+        }
+
+        return (a << 24) |
+                (((pixel >> 16) & 0xff) * a + 127) / 255 << 16 |
+                (((pixel >> 8) & 0xff) * a + 127) / 255 << 8 |
+                ((pixel & 0xff) * a + 127) / 255;
+    }
+
+    /**
+     * Converts a premultiplied ARGB pixel to non-premultiplied form.
+     *
+     * @param pixel The premultiplied pixel
+     * @return The non-premultiplied pixel
+     */
+    static int unpremultiply(int pixel) {
+        int a = pixel >>> 24;
+        if (a == 0xff) {
+            return pixel;
+        } else if (a == 0) {
+            return 0;
+        }
+
+        return (a << 24) |
+                Math.min(0xff, (((pixel >> 16) & 0xff) * 255 + a / 2) / a) << 16 |
+                Math.min(0xff, (((pixel >> 8) & 0xff) * 255 + a / 2) / a) << 8 |
+                Math.min(0xff, ((pixel & 0xff) * 255 + a / 2) / a);
+    }
+}
@@ -2,6 +2,7 @@ package com.defano.jsegue.renderers;
 
 import com.defano.jsegue.AnimatedSegue;
 
+import java.awt.*;
 import java.awt.image.BufferedImage;
 
 /**
@@ -16,4 +17,35 @@ public class PlainEffect extends AnimatedSegue {
         // No-op effect that simply renders the original image
         return src;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public void render(BufferedImage src, BufferedImage dst, float progress, BufferedImage target) {
+        int width = Math.min(src.getWidth(), target.getWidth());
+        int[] row = new int[width];
+
+        // Copy the source exactly; compositing would round the color of translucent pixels
+        for (int y = 0; y < Math.min(src.getHeight(), target.getHeight()); y++) {
+            Pixels.readRow(src, 0, y, width, row);
+            Pixels.writeRow(target, 0, y, width, row);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
+        Images.draw(g, src, 0, 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Shape getDamage(int width, int height, float fromProgress, float toProgress) {
+        return new Rectangle();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isDeltaRenderable() {
+        return true;
+    }
 }
@@ -3,7 +3,6 @@ package com.defano.jsegue.renderers;
 import com.defano.jsegue.AnimatedSegue;
 
 import java.awt.*;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 
 /**
@@ -14,24 +13,19 @@ public class ScrollDownEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+        return drawFrame(src, dst, progress);
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
         // Calculate scroll distance
         int scrollDistance = (int) (progress * src.getHeight());
 
         // Push the from image down
-        AffineTransform fromTranslate = new AffineTransform();
-        fromTranslate.translate(0, scrollDistance);
-        g.setTransform(fromTranslate);
-        g.drawImage(src, 0, 0, null);
+        Images.draw(g, src, 0, scrollDistance);
 
         // Push the to image down atop it
-        AffineTransform toTranslate = new AffineTransform();
-        toTranslate.translate(0, -dst.getHeight() + scrollDistance);
-        g.setTransform(toTranslate);
-        g.drawImage(dst, 0, 0, null);
-
-        return frame;
+        Images.draw(g, dst, 0, -dst.getHeight() + scrollDistance);
     }
 }
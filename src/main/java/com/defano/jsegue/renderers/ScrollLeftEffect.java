@@ -3,7 +3,6 @@ package com.defano.jsegue.renderers;
 import com.defano.jsegue.AnimatedSegue;
 
 import java.awt.*;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 
 /**
@@ -14,24 +13,19 @@ public class ScrollLeftEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+        return drawFrame(src, dst, progress);
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
         // Calculate the scroll distance, in pixels
         int scrollDistance = (int) (progress * src.getWidth());
 
         // Slide the from image up
-        AffineTransform fromTranslate = new AffineTransform();
-        fromTranslate.translate(-scrollDistance, 0);
-        g.setTransform(fromTranslate);
-        g.drawImage(src, 0, 0, null);
+        Images.draw(g, src, -scrollDistance, 0);
 
         // Slide the to image up underneath it
-        AffineTransform toTranslate = new AffineTransform();
-        toTranslate.translate(dst.getWidth() - scrollDistance, 0);
-        g.setTransform(toTranslate);
-        g.drawImage(dst, 0, 0, null);
-
-        return frame;
+        Images.draw(g, dst, dst.getWidth() - scrollDistance, 0);
     }
 }
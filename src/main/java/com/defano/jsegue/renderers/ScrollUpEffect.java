@@ -3,7 +3,6 @@ package com.defano.jsegue.renderers;
 import com.defano.jsegue.AnimatedSegue;
 
 import java.awt.*;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 
 /**
@@ -14,25 +13,20 @@ public class ScrollUpEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+        return drawFrame(src, dst, progress);
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
         // Calculate scroll distance, in pixels
         int scrollDistance = (int) (progress * src.getHeight());
 
         // Slide from image up
-        AffineTransform fromTranslate = new AffineTransform();
-        fromTranslate.translate(0, -scrollDistance);
-        g.setTransform(fromTranslate);
-        g.drawImage(src, 0, 0, null);
+        Images.draw(g, src, 0, -scrollDistance);
 
         // Slide to image up from bottom of screen
-        AffineTransform toTranslate = new AffineTransform();
-        toTranslate.translate(0, dst.getHeight() - scrollDistance);
-        g.setTransform(toTranslate);
-        g.drawImage(dst, 0, 0, null);
-
-        return frame;
+        Images.draw(g, dst, 0, dst.getHeight() - scrollDistance);
     }
 
 }
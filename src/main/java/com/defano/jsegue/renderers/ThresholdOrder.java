@@ -0,0 +1,87 @@
+package com.defano.jsegue.renderers;
+
+/**
+ * An ordering of the pixels in a frame by the threshold at which each pixel switches from the source to the destination
+ * image. Built once per threshold map (in linear time, using a counting sort), the ordering lets a monotonic
+ * transition visit only those pixels whose threshold lies between two levels.
+ */
+class ThresholdOrder {
+
+    private final int width;
+    private final int height;
+    private final int[] order;
+    private final int[] levelEnd;
+
+    private ThresholdOrder(int width, int height, int[] order, int[] levelEnd) {
+        this.width = width;
+        this.height = height;
+        this.order = order;
+        this.levelEnd = levelEnd;
+    }
+
+    /**
+     * Sorts the pixels of a threshold map by threshold (stable with respect to pixel index).
+     *
+     * @param width      The width of the map
+     * @param height     The height of the map
+     * @param thresholds The threshold of each pixel, indexed in row-major order; each value in the range 0 to
+     *                   levels - 1.
+     * @param levels     The number of distinct threshold levels
+     * @return The pixel ordering
+     */
+    static ThresholdOrder sort(int width, int height, int[] thresholds, int levels) {
+        int[] levelEnd = new int[levels];
+        for (int threshold : thresholds) {
+            levelEnd[threshold]++;
+        }
+
+        for (int level = 1; level < levels; level++) {
+            levelEnd[level] += levelEnd[level - 1];
+        }
+
+        int[] next = new int[levels];
+        System.arraycopy(levelEnd, 0, next, 1, levels - 1);
+
+        int[] order = new int[thresholds.length];
+        for (int pixel = 0; pixel < thresholds.length; pixel++) {
+            order[next[thresholds[pixel]]++] = pixel;
+        }
+
+        return new ThresholdOrder(width, height, order, levelEnd);
+    }
+
+    /**
+     * Determines if this ordering describes a frame of the given size.
+     *
+     * @param width  The frame width
+     * @param height The frame height
+     * @return True if this ordering has the given dimensions
+     */
+    boolean isSize(int width, int height) {
+        return this.width == width && this.height == height;
+    }
+
+    /**
+     * Gets the number of pixels whose threshold is less than or equal to the given level; that is, the position in
+     * {@link #getOrder()} of the first pixel above this level.
+     *
+     * @param level The threshold level
+     * @return The count of pixels at or below the level
+     */
+    int countAtOrBelow(int level) {
+        if (level < 0) {
+            return 0;
+        }
+
+        return levelEnd[Math.min(level, levelEnd.length - 1)];
+    }
+
+    /**
+     * Gets the row-major indices of every pixel, sorted by ascending threshold.
+     *
+     * @return The pixel ordering; callers must not modify the returned array.
+     */
+    int[] getOrder() {
+        return order;
+    }
+}
@@ -0,0 +1,110 @@
+package com.defano.jsegue.renderers;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferUShort;
+import java.util.Random;
+import java.util.function.DoubleBinaryOperator;
+
+/**
+ * Factories of procedurally generated transition maps for {@link LumaWipeEffect}. Each map is a 16-bit grayscale
+ * image in which darker pixels switch from the source to the destination image before lighter ones.
+ */
+public final class TransitionMaps {
+
+    private TransitionMaps() {
+    }
+
+    /**
+     * Creates a map that wipes from left to right.
+     *
+     * @param width  The width of the map
+     * @param height The height of the map
+     * @return The transition map
+     */
+    public static BufferedImage horizontal(int width, int height) {
+        return create(width, height, (x, y) -> x / Math.max(1, width - 1));
+    }
+
+    /**
+     * Creates a map that wipes from top to bottom.
+     *
+     * @param width  The width of the map
+     * @param height The height of the map
+     * @return The transition map
+     */
+    public static BufferedImage vertical(int width, int height) {
+        return create(width, height, (x, y) -> y / Math.max(1, height - 1));
+    }
+
+    /**
+     * Creates a map that wipes diagonally, from the top-left corner to the bottom-right.
+     *
+     * @param width  The width of the map
+     * @param height The height of the map
+     * @return The transition map
+     */
+    public static BufferedImage diagonal(int width, int height) {
+        return create(width, height, (x, y) -> (x / Math.max(1, width - 1) + y / Math.max(1, height - 1)) / 2);
+    }
+
+    /**
+     * Creates a map that wipes outward in a circle from the center.
+     *
+     * @param width  The width of the map
+     * @param height The height of the map
+     * @return The transition map
+     */
+    public static BufferedImage radial(int width, int height) {
+        double radius = Math.max(1, Math.hypot(width / 2.0, height / 2.0));
+        return create(width, height, (x, y) -> Math.hypot(x + 0.5 - width / 2.0, y + 0.5 - height / 2.0) / radius);
+    }
+
+    /**
+     * Creates a map that sweeps clockwise around the center, like the hand of a clock, starting at twelve o'clock.
+     *
+     * @param width  The width of the map
+     * @param height The height of the map
+     * @return The transition map
+     */
+    public static BufferedImage clock(int width, int height) {
+        return create(width, height, (x, y) -> {
+            double angle = Math.atan2(x + 0.5 - width / 2.0, height / 2.0 - y - 0.5);
+            return (angle < 0 ? angle + 2 * Math.PI : angle) / (2 * Math.PI);
+        });
+    }
+
+    /**
+     * Creates a map in which each pixel switches at a random time, dissolving the source into the destination.
+     *
+     * @param width  The width of the map
+     * @param height The height of the map
+     * @param seed   The seed of the random sequence; the same seed always produces the same map
+     * @return The transition map
+     */
+    public static BufferedImage noise(int width, int height, long seed) {
+        Random random = new Random(seed);
+        return create(width, height, (x, y) -> random.nextDouble());
+    }
+
+    /**
+     * Creates a map by evaluating a function at the (top-left corner of) each pixel, in row-major order.
+     *
+     * @param width    The width of the map
+     * @param height   The height of the map
+     * @param function A function of x and y returning a value between 0.0 (switches first) and 1.0 (switches last)
+     * @return The transition map
+     */
+    private static BufferedImage create(int width, int height, DoubleBinaryOperator function) {
+        BufferedImage map = new BufferedImage(width, height, BufferedImage.TYPE_USHORT_GRAY);
+        short[] samples = ((DataBufferUShort) map.getRaster().getDataBuffer()).getData();
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                double value = Math.max(0, Math.min(1.0, function.applyAsDouble(x, y)));
+                samples[y * width + x] = (short) Math.round(value * 0xffff);
+            }
+        }
+
+        return map;
+    }
+}
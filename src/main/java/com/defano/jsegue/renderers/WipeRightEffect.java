@@ -13,16 +13,37 @@ public class WipeRightEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+        return drawFrame(src, dst, progress);
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
         // Calculate wipe distance
-        int distance = Math.min(src.getWidth() - 1, (int) (progress * src.getWidth()));
+        int distance = getDistance(src.getWidth(), progress);
         BufferedImage sub = src.getSubimage(distance, 0, src.getWidth() - distance, src.getHeight());
 
-        g.drawImage(dst, 0, 0, null);
-        g.drawImage(sub, distance, 0, null);
+        Images.draw(g, dst, 0, 0);
+        Images.draw(g, sub, distance, 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Shape getDamage(int width, int height, float fromProgress, float toProgress) {
+        int from = getDistance(width, fromProgress);
+        int to = getDistance(width, toProgress);
+
+        // Only the strip uncovered (or re-covered) by the moving edge of the source has changed
+        return new Rectangle(Math.min(from, to), 0, Math.abs(to - from), height);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isDeltaRenderable() {
+        return true;
+    }
 
-        return frame;
+    private int getDistance(int width, float progress) {
+        return Math.min(width - 1, (int) (progress * width));
     }
 }
@@ -13,16 +13,37 @@ public class WipeUpEffect extends AnimatedSegue {
     /** {@inheritDoc} */
     @Override
     public BufferedImage render(BufferedImage src, BufferedImage dst, float progress) {
-        BufferedImage frame = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = frame.createGraphics();
+        return drawFrame(src, dst, progress);
+    }
 
+    /** {@inheritDoc} */
+    @Override
+    protected void draw(BufferedImage src, BufferedImage dst, float progress, Graphics2D g) {
         // Calculate wipe distance
-        int distance = Math.min(src.getHeight() - 1, (int) (progress * src.getHeight()));
+        int distance = getDistance(src.getHeight(), progress);
         BufferedImage sub = src.getSubimage(0, 0, src.getWidth(), src.getHeight() - distance);
 
-        g.drawImage(dst, 0, 0, null);
-        g.drawImage(sub, 0, 0, null);
+        Images.draw(g, dst, 0, 0);
+        Images.draw(g, sub, 0, 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected Shape getDamage(int width, int height, float fromProgress, float toProgress) {
+        int from = getDistance(height, fromProgress);
+        int to = getDistance(height, toProgress);
+
+        // Only the strip uncovered (or re-covered) by the moving edge of the source has changed
+        return new Rectangle(0, height - Math.max(from, to), width, Math.abs(to - from));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean isDeltaRenderable() {
+        return true;
+    }
 
-        return frame;
+    private int getDistance(int height, float progress) {
+        return Math.min(height - 1, (int) (progress * height));
     }
 }
@@ -1,55 +1,48 @@
 package com.defano.jsegue;
 
-import com.madgag.gif.fmsware.AnimatedGifEncoder;
-
-import java.awt.*;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.concurrent.TimeUnit;
 
 public class GifGenerator {
 
     private final static int SIZE = 50;
 
-    public static void main(String[] argv) {
+    public static void main(String[] argv) throws IOException {
 
         System.err.println(new File("doc/images/").getAbsolutePath());
 
         for (String thisName : Segue.names()) {
-
-            AnimatedGifEncoder e = new AnimatedGifEncoder();
-            e.start("doc/images/" + thisName + ".gif");
-            e.setDelay(1000 / 20);   // 20 frames per sec
-            e.setTransparent(Color.BLACK);
-            e.setRepeat(0);
-
-            forwardThenBackward(Segue.classNamed(thisName), e);
+            try (OutputStream out = new FileOutputStream("doc/images/" + thisName + ".gif")) {
+                forwardThenBackward(Segue.classNamed(thisName)).export(out);
+            }
         }
     }
 
-    public static void forwardThenBackward(Class<? extends AnimatedSegue> segue, AnimatedGifEncoder e) {
-        SegueBuilder.of(segue)
+    public static GifExporter forwardThenBackward(Class<? extends AnimatedSegue> segue) {
+        return new GifExporter(forward(segue), backward(segue));
+    }
+
+    public static AnimatedSegue forward(Class<? extends AnimatedSegue> segue) {
+        return SegueBuilder.of(segue)
                 .withSource(JSegueDemo.getBlueCircle(SIZE, SIZE))
                 .withDestination(JSegueDemo.getOrangeRect(SIZE, SIZE))
                 .withDuration(1000, TimeUnit.MILLISECONDS)
                 .withMaxFramesPerSecond(20)
                 .overlay(true)
-                .withAnimationObserver((s, image) -> e.addFrame(image))
-                .withCompletionObserver(effect -> backward(segue, e))
-                .build()
-                .start();
+                .build();
     }
 
-    public static void backward(Class<? extends AnimatedSegue> segue, AnimatedGifEncoder e) {
-        SegueBuilder.of(segue)
+    public static AnimatedSegue backward(Class<? extends AnimatedSegue> segue) {
+        return SegueBuilder.of(segue)
                 .withSource(JSegueDemo.getOrangeRect(SIZE, SIZE))
                 .withDestination(JSegueDemo.getBlueCircle(SIZE, SIZE))
                 .withDuration(1000, TimeUnit.MILLISECONDS)
                 .withMaxFramesPerSecond(20)
                 .overlay(true)
-                .withAnimationObserver((s, image) -> e.addFrame(image))
-                .withCompletionObserver(effect -> e.finish())
-                .build()
-                .start();
+                .build();
     }
 
 }
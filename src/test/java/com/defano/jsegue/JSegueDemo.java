@@ -9,9 +9,10 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.util.concurrent.TimeUnit;
 
-public class JSegueDemo implements SegueAnimationObserver, SegueCompletionObserver {
+public class JSegueDemo implements SegueAnimationObserver {
 
     private AnimatedSegue effect;
+    private SegueSequence sequence;
     private String name;
 
     private JFrame frame;
@@ -50,10 +51,8 @@ public class JSegueDemo implements SegueAnimationObserver, SegueCompletionObserv
             duration.addChangeListener(e -> run(name));
 
             progressSlider.addChangeListener(e -> {
-                effect.stop();
-                onFrameRendered(effect, effect.render(getBlueCircle(image.getWidth(), image.getHeight()),
-                        getOrangeRect(image.getWidth(), image.getHeight()),
-                        (float) progressSlider.getValue() / 100f));
+                sequence.stop();
+                effect.seek((float) progressSlider.getValue() / 100f);
             });
 
             duration.setModel(new SpinnerNumberModel(1000, 10, 10000, 20));
@@ -65,21 +64,31 @@ public class JSegueDemo implements SegueAnimationObserver, SegueCompletionObserv
     private void run(String name) {
         this.name = name;
 
-        if (effect != null) {
-            effect.stop();
+        if (sequence != null) {
+            sequence.stop();
         }
 
-        effect = SegueBuilder.of(Segue.classNamed(name))
-                .withSource(getBlueCircle(image.getWidth(), image.getHeight()))
-                .withDestination(getOrangeRect(image.getWidth(), image.getHeight()))
+        BufferedImage blueCircle = getBlueCircle(image.getWidth(), image.getHeight());
+        BufferedImage orangeRect = getOrangeRect(image.getWidth(), image.getHeight());
+
+        effect = build(name, blueCircle, orangeRect);
+        sequence = new SegueSequence(effect, build(name, orangeRect, blueCircle))
+                .withPlaybackMode(SegueSequence.PlaybackMode.LOOP);
+
+        sequence.start();
+    }
+
+    private AnimatedSegue build(String name, BufferedImage from, BufferedImage to) {
+        return SegueBuilder.of(Segue.classNamed(name))
+                .withSource(from)
+                .withDestination(to)
                 .withDuration((int) duration.getValue(), TimeUnit.MILLISECONDS)
                 .withMaxFramesPerSecond(30)
                 .withAnimationObserver(this)
-                .withCompletionObserver(this)
+                .withObserverExecutor(SwingUtilities::invokeLater)
+                .withKeyframes(11)
                 .overlay(blend.isSelected())
                 .build();
-
-        effect.start();
     }
 
     public static BufferedImage getBlueCircle(int width, int height) {
@@ -102,16 +111,6 @@ public class JSegueDemo implements SegueAnimationObserver, SegueCompletionObserv
         return src;
     }
 
-    @Override
-    public void onSegueAnimationCompleted(AnimatedSegue segue) {
-        BufferedImage to = segue.getSource();
-        BufferedImage from = segue.getDestination();
-
-        segue.setDestination(to);
-        segue.setSource(from);
-        segue.start();
-    }
-
     @Override
     public void onFrameRendered(AnimatedSegue segue, BufferedImage image) {
         this.image.setIcon(new ImageIcon(image));
@@ -0,0 +1,146 @@
+package com.defano.jsegue;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of every renderer's {@link AnimatedSegue#render(BufferedImage, BufferedImage, float)}. Run with
+ * {@code mvn -P benchmark test}, or run this class's main method, which benchmarks every concrete renderer found by
+ * {@link Segue#names()} (the {@code effect} list below applies only when the benchmark is run some other way). JMH
+ * command line arguments are honored, for example
+ * {@code -p effect=BlindsEffect -p size=1920x1080} limits the run to one effect at one resolution.
+ * <p>
+ * By default, images are {@code INT_ARGB} and no rendering hints are applied; the full matrix of every format and
+ * profile takes roughly a day. Widen it only for the effects of interest: {@code -p format=INT_ARGB,INT_ARGB_PRE}
+ * compares frames rendered from non-premultiplied and premultiplied images, and
+ * {@code -p profile=NONE,FASTEST,BALANCED,QUALITY} compares rendering profiles ({@code NONE} applies no rendering
+ * hints). With Maven, pass these as {@code -Dbenchmark.args="-p effect=BlindsEffect -p profile=FASTEST,QUALITY"}.
+ * <p>
+ * Successive invocations alternate between the given progress and that of the next frame of the segue's animation, so
+ * that effects that update only what changed since their last frame (such as {@code PixelDissolveEffect}) are measured
+ * doing a frame's work rather than none. By default frames are not buffered, so every frame is a new image;
+ * {@code -p frameBuffers=2} releases each frame once rendered (see {@link AnimatedSegue#setFrameBufferCount(int)}), so
+ * that effects may update recycled frames in place.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RendererBenchmark {
+
+    @Param({"AlphaDissolveEffect", "BarnDoorCloseEffect", "BarnDoorOpenEffect", "BlindsEffect", "CheckerboardEffect",
+            "IrisCloseEffect", "IrisOpenEffect", "LumaWipeEffect", "PixelDissolveEffect", "PlainEffect", "ScrollDownEffect",
+            "ScrollLeftEffect", "ScrollRightEffect", "ScrollUpEffect", "ShrinkToBottomEffect", "ShrinkToCenterEffect",
+            "ShrinkToTopEffect", "StretchFromBottomEffect", "StretchFromCenterEffect", "StretchFromTopEffect",
+            "WipeDownEffect", "WipeLeftEffect", "WipeRightEffect", "WipeUpEffect", "ZoomInEffect", "ZoomOutEffect"})
+    private String effect;
+
+    @Param({"50x50", "640x480", "1920x1080", "3840x2160"})
+    private String size;
+
+    @Param({"false", "true"})
+    private boolean overlay;
+
+    @Param({"false", "true"})
+    private boolean translucent;
+
+    @Param({"0.1", "0.5", "0.9"})
+    private float progress;
+
+    @Param({"INT_ARGB"})
+    private String format;
+
+    @Param({"NONE"})
+    private String profile;
+
+    @Param({"0"})
+    private int frameBuffers;
+
+    private AnimatedSegue segue;
+    private BufferedImage source;
+    private BufferedImage destination;
+    private float nextProgress;
+    private float frameProgress;
+
+    public static void main(String[] argv) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(argv);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .include(RendererBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class);
+
+        // Benchmark every renderer unless told otherwise, so that new renderers can't be left out
+        if (!commandLineOptions.getParameter("effect").hasValue()) {
+            options.param("effect", Segue.names().stream().sorted().toArray(String[]::new));
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        int width = Integer.parseInt(size.split("x")[0]);
+        int height = Integer.parseInt(size.split("x")[1]);
+
+        source = JSegueDemo.getBlueCircle(width, height);
+        destination = JSegueDemo.getOrangeRect(width, height);
+
+        if (!translucent) {
+            source = flatten(source, Color.WHITE);
+            destination = flatten(destination, Color.BLACK);
+        }
+
+        SegueBuilder builder = SegueBuilder.of(Segue.classNamed(effect))
+                .withSource(source)
+                .withDestination(destination)
+                .overlay(overlay)
+                .withFrameBuffers(frameBuffers)
+                .withImageType(format.equals("INT_ARGB_PRE") ? BufferedImage.TYPE_INT_ARGB_PRE : BufferedImage.TYPE_INT_ARGB);
+
+        if (!profile.equals("NONE")) {
+            builder.withRenderingProfile(RenderingProfile.valueOf(profile));
+        }
+
+        segue = builder.build();
+
+        // Render the images as converted by the builder
+        source = segue.getSource();
+        destination = segue.getDestination();
+
+        nextProgress = progress + segue.getFrameProgress(1);
+        frameProgress = nextProgress;
+    }
+
+    @Benchmark
+    public BufferedImage render() {
+        frameProgress = frameProgress == progress ? nextProgress : progress;
+        BufferedImage frame = segue.render(source, destination, frameProgress);
+
+        if (frameBuffers > 0) {
+            segue.releaseFrame(frame);
+        }
+
+        return frame;
+    }
+
+    private static BufferedImage flatten(BufferedImage image, Color background) {
+        BufferedImage flattened = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = flattened.createGraphics();
+        g.setColor(background);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+
+        return flattened;
+    }
+}